@@ -25,6 +25,7 @@ public class ControllerConst {
   public static final String STAX = "STAX";
   public static final String CSV = "csv";
   public static final String JSON = "json";
+  public static final String SNAPSHOT = "snapshot";
   public static final String JPA = "jpa";
   public static final String SQL = "sql";
   public static final String EDITPERSON = "Person bearbeiten";
@@ -14,16 +14,96 @@
  */
 package ch.abacus.common;
 
+import java.util.List;
+
 public class DbConst {
 
   private DbConst() {
   }
 
-  public static final String URL = "jdbc:mysql://localhost:3306/persons?useLegacyDatetimeCode=false&serverTimezone=UTC";
+  public static final String URL = "jdbc:mysql://localhost:3306/persons?useLegacyDatetimeCode=false&serverTimezone=UTC&rewriteBatchedStatements=true&useServerPrepStmts=true&useAffectedRows=true";
   public static final String USER = "test";
   public static final String PASS = "Passwort1234";
   public static final String DRIVER = "com.mysql.cj.jdbc.Driver";
 
+  //Bulk import
+  public static final int BATCHSIZE = 1000;
+  public static final String KEYSEPARATOR = "\u001F";
+
+  //SchemaMigrator
+  public static final String MIGRATIONPATH = "/db/migration/";
+  public static final List<String> MIGRATIONS = List.of("V1__baseline.sql", "V3__natural_keys.sql", "V4__lookup_indexes.sql", "V5__id_allocator.sql",
+                                                      "V6__page_indexes.sql"); //V2 was dropped, the baseline already had these column types
+  public static final String MIGRATIONPREFIX = "V";
+  public static final String MIGRATIONVERSIONSEPARATOR = "__";
+  public static final String MIGRATIONLOCK = "persons_schema_migration";
+  public static final int MIGRATIONLOCKTIMEOUTSECONDS = 30;
+  public static final String MIGRATIONLOCKFAILED = "Could not acquire the schema migration lock";
+  public static final String MIGRATIONMISSING = "Schema migration not found: ";
+  public static final String MIGRATIONAPPLIED = "Applied schema migration ";
+  public static final String STATEMENTSEPARATOR = ";";
+  public static final String SQLCOMMENT = "--";
+  public static final int ERDUPFIELDNAME = 1060;
+  public static final int ERDUPKEYNAME = 1061;
+  public static final List<String> EXPECTEDINDEXES = List.of("address.uq_address_natural_key", "address.idx_address_lookup",
+                                                            "person.uq_person_natural_key", "person.idx_person_lookup", "person.idx_person_fk_address",
+                                                            "person.idx_person_firstname_page", "person.idx_person_lastname_page",
+                                                            "person.idx_person_birthdate_page");
+  public static final String INDEXMISSING = "Warning: expected index is missing, lookups will scan the table: ";
+  public static final String DOT = ".";
+
+  //IdAllocator
+  public static final int IDALLOCATIONSIZE = 500;
+  public static final String IDALLOCATORNAME = "name";
+  public static final String IDGENERATORSTRATEGY = "ch.abacus.db.components.AllocatedIdGenerator";
+  public static final String PERSONIDGENERATOR = "person-id";
+  public static final String ADDRESSIDGENERATOR = "address-id";
+  public static final String IDINVALIDALLOCATIONSIZE = "Invalid id allocation size: ";
+  public static final String IDUNKNOWNALLOCATOR = "No id_allocator row for ";
+
+  //CachingModel
+  public static final int CACHEMAXPERSONS = 10_000;
+  public static final int CACHEMAXPAGES = 64;
+  public static final String PAGEKEYSEPARATOR = "/"; //afterId, limit and sort key of a cached page
+
+  //Orphan address cleanup
+  public static final long ADDRESSSWEEPDELAYMILLIS = 2_000;
+  public static final String ADDRESSSWEEPER = "address-sweeper";
+  public static final String SWEEPFAILED = "Address sweep failed: ";
+
+  //ConnectionPool
+  public static final int POOLMINSIZE = 2;
+  public static final int POOLMAXSIZE = 10;
+  public static final long POOLMAXWAITMILLIS = 30_000;
+  public static final long POOLIDLETIMEOUTMILLIS = 600_000;
+  public static final long POOLLEAKTHRESHOLDMILLIS = 60_000;
+  public static final boolean POOLLEAKTRACES = false; //ConnectionPool.setLeakTraces, for hunting a leak
+  public static final long POOLHOUSEKEEPINGMILLIS = 30_000;
+  public static final long POOLVALIDATIONWINDOWMILLIS = 500;
+  public static final int POOLVALIDATIONTIMEOUTSECONDS = 2;
+  public static final String POOLHOUSEKEEPER = "connection-pool-housekeeper";
+  public static final String POOLINVALIDSIZE = "Invalid pool size (min, max): ";
+  public static final String POOLTIMEOUT = "Timeout waiting for a database connection after ";
+  public static final String POOLINTERRUPTED = "Interrupted while waiting for a database connection";
+  public static final String POOLSHUTDOWN = "Connection pool has been shut down";
+  public static final String POOLCONNECTIONRETURNED = "Connection has already been returned to the pool";
+  public static final String POOLLEAK = "Possible connection leak, connection borrowed since ";
+  public static final String POOLEDCONNECTION = "Pooled ";
+  public static final String MILLISECONDS = " ms";
+  public static final String STACKTRACEINDENT = "    at ";
+  public static final String CLOSE = "close";
+  public static final String ISCLOSED = "isClosed";
+  public static final String UNWRAP = "unwrap";
+  public static final String ISWRAPPERFOR = "isWrapperFor";
+  public static final String EQUALS = "equals";
+  public static final String HASHCODE = "hashCode";
+  public static final String TOSTRING = "toString";
+  public static final String PREPARESTATEMENT = "prepareStatement";
+  public static final String GETCONNECTION = "getConnection";
+  public static final String STATEMENTKEYSEPARATOR = "\u001E"; //sql and autoGeneratedKeys of a cached statement
+  public static final int STATEMENTCACHESIZE = 64;
+  public static final String CACHEDSTATEMENT = "Cached ";
+
   //SQLModelImpl & JPAModelImpl & Persons & Person
   public static final String NOPERSONFOUND = "No person found with id: ";
   public static final String PERSONS = "Persons";
@@ -45,6 +125,11 @@ public class DbConst {
   public static final String COUNTRY = "country";
   public static final String MALE = "male";
   public static final String COUNT = "count";
+  public static final String SORTVALUE = "sortvalue";
+  public static final String HINTFETCHSIZE = "org.hibernate.fetchSize";
+  public static final String HINTREADONLY = "org.hibernate.readOnly";
+  public static final String HINTFETCHGRAPH = "javax.persistence.fetchgraph";
+  public static final String ADDRESSATTRIBUTE = "address";
   public static final String SQLEXCEPTION = "SQLException: ";
   public static final String SQLSTATE = "SQLState: ";
   public static final String VENDORERRORCODE = "VendorError: ";
@@ -14,6 +14,10 @@
  */
 package ch.abacus.common;
 
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+
 public class FileIOConst {
 
   private FileIOConst() {
@@ -28,9 +32,22 @@ public class FileIOConst {
   //Csv
   public static final String CSV = "csv";
   public static final String COMMASEPARATOR = ",";
+  public static final int CSVFIELDS = 9;
+  public static final Charset CSVCHARSET = StandardCharsets.UTF_8;
+  public static final int CSVMAPWINDOW = 64 * 1024 * 1024;
+  public static final int CSVWRITEBUFFER = 64 * 1024;
+  public static final int CSVSTREAMBUFFER = 1024 * 1024;
+  public static final long CSVMINRANGESIZE = 8 * 1024 * 1024; //smaller files are not worth splitting
+  public static final String CSVQUOTE = "\"";
+  public static final String CSVESCAPEDQUOTE = "\"\"";
+  public static final String CSVMALFORMED = "Malformed CSV record at byte ";
+  public static final String CSVTOOMANYFIELDS = "Too many CSV fields at byte ";
+  public static final String CSVUNTERMINATEDQUOTE = "Unterminated quoted CSV field at byte ";
+  public static final String CSVRECORDTOOLARGE = "CSV record does not fit into the read window at byte ";
 
   //Dom & Jaxb & Stax
   public static final String XML = "xml";
+  public static final Charset XMLCHARSET = StandardCharsets.UTF_8;
   public static final String PERSONS = "Persons";
   public static final String PERSON = "Person";
   public static final String ADDRESS = "Address";
@@ -43,24 +60,47 @@ public class FileIOConst {
   public static final String ZIPCODE = "zipcode";
   public static final String CITY = "city";
   public static final String COUNTRY = "country";
-  public static final String XMLSTRINGTOREPLACE = "<\\?xml version=\"1.0\" encoding=\"UTF-8\"\\?>";
   public static final String XMLDOCTYP = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>";
   public static final String ERRORSTORINGXML = "Error storing XML";
   public static final String LS = "LS";
   public static final String FORMATPRETTYPRINT = "format-pretty-print";
   public static final String NAMESPACE = "namespaces";
   public static final String NAMESPACEDECLARATIONS = "namespace-declarations";
+  public static final String XMLDECLARATION = "xml-declaration";
   public static final String NEWLINE = "\n";
   public static final String FOURSPACE = "    ";
   public static final String EIGTHSPACE = "        ";
   public static final String UNEXPECTEDVALUE = "Unexpected value: ";
+  public static final int JAXBPOOLSIZE = 4;
+  public static final String JAXBWARMUPTHREAD = "jaxb-warmup";
 
   //Json
   public static final String JSON = "json";
   public static final String DOCUMENTNOTSUPPORTED1 = "\nDocument with extension ";
   public static final String DOCUMENTNOTSUPPORTED2 = " aren't supported!";
   public static final String DATETIMEORMATTER = "yyyy-MM-dd";
+  public static final Charset JSONCHARSET = StandardCharsets.UTF_8;
+  public static final String JSONIDPERSON = "id_person";
+  public static final String JSONIDADDRESS = "id_address";
+  public static final String JSONADDRESS = "address";
+
+  //Snapshot
+  public static final String SNAPSHOT = "snapshot";
+  public static final int SNAPSHOTMAGIC = 0x41425053; //ABPS
+  public static final short SNAPSHOTVERSION = 1;
+  public static final Charset SNAPSHOTCHARSET = StandardCharsets.UTF_8;
+  public static final int SNAPSHOTWRITEBUFFER = 64 * 1024;
+  public static final String SNAPSHOTNOSNAPSHOT = "Not a person snapshot";
+  public static final String SNAPSHOTUNSUPPORTEDVERSION = "Unsupported snapshot version ";
+  public static final String SNAPSHOTTRUNCATED = "Snapshot is truncated or corrupt";
+  public static final String SNAPSHOTTOOLARGE = "Snapshot is too large to be mapped: ";
 
   //GetFileExtension
   public static final String DOT = ".";
+
+  //CompressedFiles
+  public static final String GZ = "gz";
+  public static final String DEFLATE = "deflate";
+  public static final int COMPRESSIONLEVEL = Deflater.DEFAULT_COMPRESSION;
+  public static final int COMPRESSIONBUFFER = 64 * 1024;
 }
\ No newline at end of file
@@ -20,9 +20,34 @@ public class JPAStatments {
   }
 
   public static final String SELECT_PERSON = "SELECT p FROM Person p";
-  public static final String SELECT_ID_BY_PERSON = "select p.id from Person p where p.firstname = :firstname and p.lastname = :lastname and p.gender = :gender and p.birthdate = :birthdate";
+  public static final String SELECT_PERSON_WITH_ADDRESS = "SELECT p FROM Person p JOIN FETCH p.address";
+  public static final String SELECT_ALL_PERSONS_WITH_ADDRESS = SELECT_PERSON_WITH_ADDRESS + " ORDER BY p.id_person";
+  public static final String SELECT_PERSON_SUMMARIES = "SELECT NEW ch.abacus.db.entity.PersonSummary(p.id_person, p.firstname, p.lastname) FROM Person p ORDER BY p.id_person";
+  public static final String SELECT_PERSONS_PAGE = "SELECT p FROM Person p JOIN FETCH p.address ORDER BY p.%1$s, p.id_person";
+  public static final String SELECT_PERSONS_PAGE_AFTER_ID = "SELECT p FROM Person p JOIN FETCH p.address WHERE p.id_person > :id_person ORDER BY p.id_person";
+  public static final String SELECT_PERSONS_PAGE_AFTER = "SELECT p FROM Person p JOIN FETCH p.address WHERE p.%1$s > :sortvalue OR (p.%1$s = :sortvalue AND p.id_person > :id_person) ORDER BY p.%1$s, p.id_person";
   public static final String DELETE_ALL_FROM_PERSON = "DELETE FROM Person";
   public static final String SELECT_ADDRESS = "SELECT a FROM Address a";
   public static final String SELECT_ID_BY_ADDRESS = "SELECT a.id FROM Address a WHERE a.street = :street AND a.streetnumber = :streetnumber AND a.city = :city AND a.zipcode = :postalcode AND a.country = :country";
+  public static final String SELECT_ADDRESS_BY_FIELDS = "SELECT a FROM Address a WHERE a.street = :street AND a.streetnumber = :streetnumber AND a.city = :city AND a.zipcode = :postalcode AND a.country = :country";
+  public static final String SELECT_ADDRESSES_BY_NATURAL_KEYS = SQLStatments.SELECT_ADDRESSES_BY_NATURAL_KEYS; //native, natural_key is not mapped
+  public static final String SELECT_PERSONS_BY_NATURAL_KEYS = SQLStatments.SELECT_PERSONS_BY_NATURAL_KEYS;
+  public static final String CLOSING_BRACKET = SQLStatments.CLOSING_BRACKET;
+  public static final String USAGECOUNT_FROM_PERSON = "SELECT COUNT(p) FROM Person p WHERE p.address.id_address = :id_address";
+  public static final String EXISTS_PERSON_BY_ADDRESS = "SELECT p.id_person FROM Person p WHERE p.address.id_address = :id_address"; //used with setMaxResults(1)
+  public static final String UPSERT_PERSON = SQLStatments.UPSERT_PERSON; //native, JPQL has no upsert
+  public static final String UPSERT_ADDRESS = SQLStatments.UPSERT_ADDRESS;
+  public static final String SELECT_LAST_INSERT_ID = SQLStatments.SELECT_LAST_INSERT_ID;
+  public static final String UPSERT_QUERY_SPACE = "upsert";
   public static final String DELETE_ALL_FROM_ADDRESS = "DELETE FROM Address";
+  public static final String DELETE_UNUSED_ADDRESSES = "DELETE FROM Address a WHERE NOT EXISTS (SELECT p FROM Person p WHERE p.address = a)";
+
+  //@NamedQuery names, the queries are parsed once when the EntityManagerFactory starts
+  public static final String NAMED_USAGECOUNT_FROM_PERSON = "Person.usageCount";
+  public static final String NAMED_EXISTS_PERSON_BY_ADDRESS = "Person.existsByAddress";
+  public static final String NAMED_SELECT_ID_BY_ADDRESS = "Address.idByFields";
+  public static final String NAMED_SELECT_ADDRESS_BY_FIELDS = "Address.byFields";
+
+  //@NamedEntityGraph, loads the address together with the person
+  public static final String GRAPH_PERSON_WITH_ADDRESS = "Person.withAddress";
 }
\ No newline at end of file
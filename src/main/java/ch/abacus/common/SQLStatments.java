@@ -19,19 +19,43 @@ public class SQLStatments {
   private SQLStatments() {
   }
 
-  public static final String SAVE_PERSON = "INSERT INTO person(fk_address, firstname, lastname, birthdate, gender) VALUE (?, ?, ?, ?, ?)";
-  public static final String SAVE_ADDRESS = "INSERT INTO address (street, streetnumber, postalcode, city, country) VALUES (?, ?, ?, ?, ?)";
-  public static final String SELECT_ALL_PERSONS = "SELECT * FROM person";
-  public static final String SELECT_PERSON_BY_ID = "SELECT * FROM person WHERE id_person = ?";
-  public static final String SELECT_ID_BY_PERSON = "SELECT * FROM person  WHERE firstname = ? AND lastname = ? AND birthdate = ? AND gender = ?";
+  public static final String SELECT_PERSON_SUMMARIES = "SELECT id_person, firstname, lastname FROM person ORDER BY id_person";
+  public static final String SAVE_PERSON = "INSERT INTO person(id_person, fk_address, firstname, lastname, birthdate, gender) VALUE (?, ?, ?, ?, ?, ?)";
+  public static final String SAVE_ADDRESS = "INSERT INTO address (id_address, street, streetnumber, postalcode, city, country) VALUES (?, ?, ?, ?, ?, ?)";
+  public static final String UPSERT_PERSON = SAVE_PERSON + " ON DUPLICATE KEY UPDATE id_person = LAST_INSERT_ID(id_person)";
+  public static final String UPSERT_ADDRESS = SAVE_ADDRESS + " ON DUPLICATE KEY UPDATE id_address = LAST_INSERT_ID(id_address)";
+  public static final String SELECT_LAST_INSERT_ID = "SELECT LAST_INSERT_ID()";
+  public static final String ALLOCATE_IDS = "UPDATE id_allocator SET next_val = LAST_INSERT_ID(next_val + ?) WHERE name = ?";
+  public static final String SELECT_ALL_PERSONS_WITH_ADDRESS = "SELECT p.id_person, p.fk_address, p.firstname, p.lastname, p.birthdate, p.gender, a.street, a.streetnumber, a.postalcode, a.city, a.country FROM person p JOIN address a ON a.id_address = p.fk_address";
+  public static final String SELECT_ALL_PERSONS_BY_ID = SELECT_ALL_PERSONS_WITH_ADDRESS + " ORDER BY p.id_person"; //primary key order, no filesort
+  public static final String SELECT_PERSON_WITH_ADDRESS_BY_ID = SELECT_ALL_PERSONS_WITH_ADDRESS + " WHERE p.id_person = ?";
+  public static final String SELECT_PERSONS_PAGE = SELECT_ALL_PERSONS_WITH_ADDRESS + " ORDER BY p.%1$s, p.id_person LIMIT ?";
+  public static final String SELECT_PERSONS_PAGE_AFTER_ID = SELECT_ALL_PERSONS_WITH_ADDRESS + " WHERE p.id_person > ? ORDER BY p.id_person LIMIT ?";
+  public static final String SELECT_PERSONS_PAGE_AFTER = SELECT_ALL_PERSONS_WITH_ADDRESS + " WHERE p.%1$s > ? OR (p.%1$s = ? AND p.id_person > ?) ORDER BY p.%1$s, p.id_person LIMIT ?"; //MySQL does no range scan for a row value comparison
+  public static final String SELECT_PAGE_ANCHOR = "SELECT %1$s FROM person WHERE id_person = ?";
   public static final String DELETE_PERSON_BY_ID = "DELETE FROM person WHERE id_person = ?";
   public static final String DELETE_ALL_PERSONS = "DELETE FROM person";
   public static final String UPDATE_PERSON = "UPDATE person SET fk_address = ?, firstname = ?, lastname = ?, birthdate = ?, gender = ? WHERE id_person = ?";
   public static final String SELECT_ALL_ADDRESS = "SELECT * FROM address";
   public static final String SELECT_ADDRESS_BY_ID = "SELECT * FROM address WHERE id_address = ?";
-  public static final String SELECT_ID_FROM_ADDRESS = "SELECT * FROM address WHERE street = ? AND streetnumber = ? AND postalcode = ? AND city = ? AND country = ?";
+  public static final String NATURAL_KEY_HASH = "UNHEX(MD5(LOWER(CONCAT_WS(CHAR(31 USING utf8mb4), ?, ?, ?, ?, ?))))"; //same expression as the generated natural_key columns
+  public static final String SELECT_ID_FROM_ADDRESS = "SELECT id_address FROM address WHERE natural_key = " + NATURAL_KEY_HASH;
   public static final String DELETE_ALL_ADDRESSES = "DELETE FROM address";
   public static final String DELETE_ADDRESS_BY_ID = "DELETE FROM address WHERE id_address = ?";
+  public static final String DELETE_UNUSED_ADDRESSES = "DELETE FROM address WHERE NOT EXISTS (SELECT 1 FROM person WHERE person.fk_address = address.id_address)";
   public static final String UPDATE_ADDRESS = "UPDATE address SET street = ?, streetnumber = ?, postalcode = ?, city = ?, country = ? WHERE id_address = ?";
+  //compared through the hash, the collation would also match accents and trailing spaces the unique index tells apart
+  public static final String SELECT_ADDRESSES_BY_NATURAL_KEYS = "SELECT * FROM address WHERE natural_key IN (";
+  public static final String SELECT_PERSONS_BY_NATURAL_KEYS = "SELECT firstname, lastname, birthdate, gender, fk_address FROM person WHERE natural_key IN (";
+  public static final String PLACEHOLDER_SEPARATOR = ", ";
+  public static final String CLOSING_BRACKET = ")";
+  public static final String EXISTS_PERSON_BY_ID = "SELECT EXISTS(SELECT 1 FROM person WHERE id_person = ?)";
+  public static final String EXISTS_ADDRESS_BY_ID = "SELECT EXISTS(SELECT 1 FROM address WHERE id_address = ?)";
   public static final String USAGECOUNT_FROM_PERSON = "SELECT COUNT(*) AS count FROM person WHERE fk_address = ?";
+  public static final String CREATE_SCHEMA_VERSION = "CREATE TABLE IF NOT EXISTS schema_version (version INT PRIMARY KEY, script VARCHAR(128) NOT NULL, installed_on TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)";
+  public static final String SELECT_SCHEMA_VERSIONS = "SELECT version FROM schema_version";
+  public static final String INSERT_SCHEMA_VERSION = "INSERT INTO schema_version (version, script) VALUES (?, ?)";
+  public static final String GET_LOCK = "SELECT GET_LOCK(?, ?)";
+  public static final String RELEASE_LOCK = "SELECT RELEASE_LOCK(?)";
+  public static final String SELECT_INDEXES = "SELECT DISTINCT table_name, index_name FROM information_schema.statistics WHERE table_schema = DATABASE()";
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+/*
+ * SortKey.java
+ *
+ * Creator:
+ * 18.10.2026 11:32 agent
+ *
+ * Maintainer:
+ * 18.10.2026 11:32 agent
+ *
+ * Last Modification:
+ * $Id:$
+ *
+ * Copyright (c) 2024 ABACUS Research AG, All Rights Reserved
+ */
+package ch.abacus.common;
+
+//column and entity field carry the same name, so one value serves SQL and JPQL
+public enum SortKey {
+  ID(DbConst.IDPERSON),
+  FIRSTNAME(DbConst.FIRSTNAME),
+  LASTNAME(DbConst.LASTNAME),
+  BIRTHDATE(DbConst.BIRTHDATE);
+
+  private final String column;
+
+  SortKey(String column) {
+    this.column = column;
+  }
+
+  public String getColumn() {
+    return column;
+  }
+}
@@ -59,10 +59,13 @@ public class UITextConst {
   public static final String EXIT = "Abbrechen";
 
   //FileDialog
-  public static final String XMLCSVJSON = "XML, CSV, JSON";
+  public static final String XMLCSVJSON = "XML, CSV, JSON, Snapshot (auch .gz, .deflate)";
   public static final String XML = "xml";
   public static final String CSV = "csv";
   public static final String JSON = "json";
+  public static final String SNAPSHOT = "snapshot";
+  public static final String GZ = "gz";
+  public static final String DEFLATE = "deflate";
   public static final String NEWFILEDESTINATION = "C:\\dev\\java\\addressverwaltungUI\\src";
 
 }
\ No newline at end of file
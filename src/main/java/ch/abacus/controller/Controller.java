@@ -16,6 +16,7 @@ package ch.abacus.controller;
 
 import ch.abacus.common.State;
 import ch.abacus.db.entity.Person;
+import ch.abacus.db.entity.PersonSummary;
 
 import java.util.List;
 import java.util.function.Consumer;
@@ -28,4 +29,6 @@ public interface Controller extends Consumer<Throwable> {
 
   List<Person> getAllPeople();
 
+  List<PersonSummary> getPersonSummaries();
+
 }
@@ -19,12 +19,16 @@ import ch.abacus.common.ControllerConst;
 import ch.abacus.common.ErrorConst;
 import ch.abacus.common.State;
 import ch.abacus.common.ViewConst;
+import ch.abacus.db.CachingModel;
 import ch.abacus.db.JPAModelImpl;
 import ch.abacus.db.Model;
 import ch.abacus.db.SQLModelImpl;
 import ch.abacus.db.entity.Address;
 import ch.abacus.db.entity.Person;
+import ch.abacus.db.entity.PersonSummary;
+import ch.abacus.fileio.GetFileExtension;
 import ch.abacus.fileio.PersonIOFactory;
+import ch.abacus.fileio.components.JaxbContextHolder;
 import ch.abacus.fileio.components.XMLWRITE;
 import ch.abacus.view.View;
 import ch.abacus.view.ViewImpl;
@@ -52,14 +56,15 @@ import static javax.swing.JFileChooser.CANCEL_SELECTION;
 public class ControllerImpl implements Controller, ActionListener, ListSelectionListener {
 
   private Model model;
-  private final Model sqlModel;
-  private final Model jpaModel;
+  private final CachingModel sqlModel;
+  private final CachingModel jpaModel;
   private final View view;
   private final List<State> states = new ArrayList<>();
   private FileXmlChoiceDialog fileXmlChoiceDialog;
   private PersonDetailPanel detailPanel;
   private ErrorDialog errorDialog;
   private PersonIOFactory factory;
+  private final GetFileExtension getFileExtension = new GetFileExtension();
   private FileDialog fileDialog;
   private PersonDialog personDialog;
   private Person selectedPerson;
@@ -69,8 +74,8 @@ public class ControllerImpl implements Controller, ActionListener, ListSelection
 
   public ControllerImpl() {
     this.view = new ViewImpl(this);
-    this.sqlModel = new SQLModelImpl(this);
-    this.jpaModel = new JPAModelImpl();
+    this.sqlModel = new CachingModel(new SQLModelImpl(this));
+    this.jpaModel = new CachingModel(new JPAModelImpl());
 
     model = sqlModel;
 
@@ -79,6 +84,7 @@ public class ControllerImpl implements Controller, ActionListener, ListSelection
 
   @Override
   public void init() {
+    JaxbContextHolder.getInstance().warmUp();
     view.initUI(this, this);
   }
 
@@ -140,9 +146,11 @@ public class ControllerImpl implements Controller, ActionListener, ListSelection
         closeFileDialog();
         break;
       case ControllerConst.JPA:
+        jpaModel.invalidateAll(); //the other model may have written in the meantime
         model = getJpaModel();
         break;
       case ControllerConst.SQL:
+        sqlModel.invalidateAll();
         model = getSqlModel();
         break;
       default:
@@ -163,10 +171,10 @@ public class ControllerImpl implements Controller, ActionListener, ListSelection
     if (detailPanel == null) {
       getErrorDialog(ErrorConst.NOPERSONSELECTEDTITLE, ErrorConst.NOPERSONSELECTEDTEXT).setVisible(true);
     } else if (selectedRow != -1) {
-      selectedPerson = getAllPeople().get(selectedRow);
+      selectedPerson = getSelectedPerson();
       delete(selectedPerson);
 
-      if (getAllPeople().size() - 1 >= 0) {
+      if (view.getTable().getRowCount() > 0) {
         view.selectRow(0);
       } else {
         view.getDetailPanel().clearTextfield();
@@ -196,30 +204,37 @@ public class ControllerImpl implements Controller, ActionListener, ListSelection
     getPersonDialog().fillModel();
     if (getLastState() == State.MODIFY) {
       getPersonDialog().fillModel();
-      Person oldPerson = getAllPeople().get(selectedRow);
+      Person oldPerson = getSelectedPerson();
       try {
         model.updatePerson(oldPerson.getId_person(), newP, this);
       } catch (Throwable e) {
         throw new RuntimeException(e);
       }
-      view.updateTableModify(selectedRow);
+      view.updateTableModify(selectedRow, newP);
       detailPanel.clearTextfield();
     } else {
       if (!personAlreadyAdded(newP)) {
+        Person savedPerson;
         try {
-          model.savePerson(newP, this);
+          savedPerson = model.savePerson(newP, this);
         } catch (Throwable e) {
           throw new RuntimeException(e);
         }
 
-        if (getLastState().equals(State.ADD)) {
-          view.updateTableAdd(newP);
-          selectLastPerson();
+        if (savedPerson == null) {
+          validAddedPerson = false; //the error was already shown
+        } else if (isInTable(savedPerson.getId_person())) { //the upsert found the person, e.g. written in another case
+          validAddedPerson = false;
+          getErrorDialog(ErrorConst.PERSONALREADYEXISTSTITLE, ErrorConst.PERSONALREADYEXISTSTEXT).setVisible(true);
         } else {
-          states.add(State.ADD);
+          if (getLastState().equals(State.ADD)) {
+            view.updateTableAdd(savedPerson); //the table needs the id of the new row
+            selectLastPerson();
+          } else {
+            states.add(State.ADD);
+          }
+          view.getDetailPanel().setModel(newP);
         }
-
-        view.getDetailPanel().setModel(newP);
       } else {
         validAddedPerson = false;
         getErrorDialog(ErrorConst.PERSONALREADYEXISTSTITLE, ErrorConst.PERSONALREADYEXISTSTEXT).setVisible(true);
@@ -237,6 +252,15 @@ public class ControllerImpl implements Controller, ActionListener, ListSelection
     view.selectRow(newRowIndex);
   }
 
+  private boolean isInTable(Long personId) {
+    for (int row = 0; row < view.getTable().getRowCount(); row++) {
+      if (personId.equals(view.getPersonIdAt(row))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   private boolean personAlreadyAdded(Person newP) {
     return getAllPeople().stream()
         .anyMatch(p -> p.getFirstName().equals(newP.getFirstName())
@@ -253,10 +277,7 @@ public class ControllerImpl implements Controller, ActionListener, ListSelection
   private void approveSelection() {
     getFileDialog().fillModel();
     String path = getFileDialog().getModel();
-    String[] splitedPath = path.split("/");
-    String[] splitedFilename = splitedPath[splitedPath.length - 1].split("\\.");
-    if (splitedFilename[1].equals(ControllerConst.XML) || splitedFilename[1].equals(ControllerConst.CSV)
-        || splitedFilename[1].equals(ControllerConst.JSON)) {
+    if (isValidFileExtension(path)) {
       if (getLastState() == State.LOAD) {
         loadFromFile(path);
       } else {
@@ -266,7 +287,7 @@ public class ControllerImpl implements Controller, ActionListener, ListSelection
       selectLastPerson();
 
     } else {
-      getErrorDialog("Invalid File", "Please enter a XML, CSV or JSON file!").setVisible(true);
+      getErrorDialog("Invalid File", "Please enter a XML, CSV, JSON or snapshot file!").setVisible(true);
     }
   }
 
@@ -300,13 +321,13 @@ public class ControllerImpl implements Controller, ActionListener, ListSelection
       try {
         List<Person> newPeople = personFileIOToPerson(getFactory().read(file, xmlEditMethode));
         if (!newPeople.isEmpty()) {
-          for (Person person : newPeople) {
-            model.savePerson(person, this);
+          if (model.saveAll(newPeople, this) < newPeople.size()) { //duplicates are skipped like in savePerson
+            states.add(State.UNAVAILABLETOSAVE);
           }
           if (getLastState() != State.LOAD) {
             states.add(State.LOAD);
           }
-          view.repaintTable(getAllPeople());
+          view.repaintTable(getPersonSummaries());
           closeFrames();
         }
       } catch (Throwable e) {
@@ -350,10 +371,12 @@ public class ControllerImpl implements Controller, ActionListener, ListSelection
     view.updateTableRemove(person);
   }
 
+  //persons.xml, persons.xml.gz and persons.xml.deflate are all xml
   private boolean isValidFileExtension(String path) {
-    String[] splitedPath = path.split("\\.");
-    return ControllerConst.XML.equals(splitedPath[splitedPath.length - 1]) || ControllerConst.CSV.equals(splitedPath[splitedPath.length - 1])
-           || ControllerConst.JSON.equals(splitedPath[splitedPath.length - 1]);
+    return getFileExtension.getExtensionByStringHandling(new File(path).getName())
+        .map(extension -> ControllerConst.XML.equals(extension) || ControllerConst.CSV.equals(extension) || ControllerConst.JSON.equals(extension)
+                          || ControllerConst.SNAPSHOT.equals(extension))
+        .orElse(false);
   }
 
   private Model getSqlModel() {
@@ -376,7 +399,7 @@ public class ControllerImpl implements Controller, ActionListener, ListSelection
 
   private void loadFileDialog() {
     if (getLastState() == State.SAVE) {
-      if (!getAllPeople().isEmpty()) {
+      if (view.getTable().getRowCount() > 0) {
         getFileDialog().setVisible(true);
       }
     } else {
@@ -490,12 +513,30 @@ public class ControllerImpl implements Controller, ActionListener, ListSelection
     }
   }
 
+  @Override
+  public List<PersonSummary> getPersonSummaries() {
+    try {
+      return model.findAllSummaries(this);
+    } catch (Throwable e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  //the table only holds summaries, the full person is loaded for the selected row
+  private Person getSelectedPerson() {
+    try {
+      return model.getPersonById(view.getPersonIdAt(selectedRow), this).orElse(null);
+    } catch (Throwable e) {
+      throw new RuntimeException(e);
+    }
+  }
+
   @Override
   public void valueChanged(ListSelectionEvent e) {
     selectedRow = view.getTable().getSelectedRow();
     if (selectedRow != -1) {
       view.enableModifyDelete();
-      selectedPerson = getAllPeople().get(selectedRow);
+      selectedPerson = getSelectedPerson();
       if (selectedPerson != null) {
         if (detailPanel == null) {
           detailPanel = view.getDetailPanel();
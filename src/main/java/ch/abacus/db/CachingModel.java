@@ -0,0 +1,212 @@
+/*
+ * CachingModel.java
+ *
+ * Creator:
+ * 18.10.2026 13:58 agent
+ *
+ * Maintainer:
+ * 18.10.2026 13:58 agent
+ *
+ * Last Modification:
+ * $Id:$
+ *
+ * Copyright (c) 2024 ABACUS Research AG, All Rights Reserved
+ */
+package ch.abacus.db;
+
+import ch.abacus.common.DbConst;
+import ch.abacus.common.SortKey;
+import ch.abacus.db.entity.Address;
+import ch.abacus.db.entity.Person;
+import ch.abacus.db.entity.PersonSummary;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+//callers get copies of the cached persons, so editing a returned person can't change the cache.
+//Writes hold the same lock as reads, a read can't put a listing back that a running write makes stale
+public class CachingModel implements Model {
+
+  private final Model model;
+  private final Map<Long, Person> persons;
+  private final Map<String, List<Person>> pages;
+  private List<Person> allPersons; //null -> not loaded
+  private List<PersonSummary> summaries; //null -> not loaded
+
+  private long hits;
+  private long misses;
+  private long evictions;
+
+  public CachingModel(Model model) {
+    this(model, DbConst.CACHEMAXPERSONS, DbConst.CACHEMAXPAGES);
+  }
+
+  public CachingModel(Model model, int maxPersons, int maxPages) {
+    this.model = model;
+    this.persons = lruMap(maxPersons);
+    this.pages = lruMap(maxPages);
+  }
+
+  @Override
+  public synchronized Person savePerson(Person person, Consumer<Throwable> consumer) throws Throwable {
+    try {
+      return model.savePerson(person, consumer);
+    } finally {
+      invalidateListings();
+    }
+  }
+
+  @Override
+  public synchronized int saveAll(Collection<Person> persons, Consumer<Throwable> consumer) throws Throwable {
+    try {
+      return model.saveAll(persons, consumer);
+    } finally {
+      invalidateListings();
+    }
+  }
+
+  @Override
+  public synchronized Optional<Person> getPersonById(Long id, Consumer<Throwable> consumer) throws Throwable {
+    Person person = persons.get(id);
+    if (person != null) {
+      hits++;
+      return Optional.of(copy(person));
+    }
+    misses++;
+    Optional<Person> loaded = model.getPersonById(id, consumer);
+    loaded.ifPresent(p -> persons.put(id, copy(p)));
+    return loaded;
+  }
+
+  @Override
+  public synchronized Person updatePerson(Long id, Person person, Consumer<Throwable> consumer) throws Throwable {
+    try {
+      return model.updatePerson(id, person, consumer);
+    } finally {
+      invalidateAll(); //the address can be shared, other cached persons show the old one
+    }
+  }
+
+  @Override
+  public synchronized void delete(Long personId, Consumer<Throwable> consumer) throws Throwable {
+    try {
+      model.delete(personId, consumer);
+    } finally {
+      invalidate(personId);
+    }
+  }
+
+  @Override
+  public synchronized List<Person> findAllPerson(Consumer<Throwable> consumer) throws Throwable {
+    if (allPersons != null) {
+      hits++;
+    } else {
+      misses++;
+      allPersons = copies(model.findAllPerson(consumer));
+      allPersons.forEach(this::cachePerson);
+    }
+    return copies(allPersons);
+  }
+
+  @Override
+  public synchronized List<PersonSummary> findAllSummaries(Consumer<Throwable> consumer) throws Throwable {
+    if (summaries != null) {
+      hits++;
+    } else {
+      misses++;
+      summaries = model.findAllSummaries(consumer);
+    }
+    return new ArrayList<>(summaries);
+  }
+
+  @Override
+  public Stream<Person> streamAll(Consumer<Throwable> consumer) throws Throwable {
+    return model.streamAll(consumer); //a stream is read once, there is nothing to keep
+  }
+
+  @Override
+  public synchronized List<Person> findPersonsPage(Long afterId, int limit, SortKey sortKey, Consumer<Throwable> consumer) throws Throwable {
+    String key = afterId + DbConst.PAGEKEYSEPARATOR + limit + DbConst.PAGEKEYSEPARATOR + sortKey;
+    List<Person> page = pages.get(key);
+    if (page != null) {
+      hits++;
+    } else {
+      misses++;
+      page = copies(model.findPersonsPage(afterId, limit, sortKey, consumer));
+      pages.put(key, page);
+      page.forEach(this::cachePerson);
+    }
+    return copies(page);
+  }
+
+  public synchronized void invalidateAll() {
+    persons.clear();
+    invalidateListings();
+  }
+
+  public synchronized long getHits() {
+    return hits;
+  }
+
+  public synchronized long getMisses() {
+    return misses;
+  }
+
+  public synchronized long getEvictions() {
+    return evictions;
+  }
+
+  public synchronized int getSize() {
+    return persons.size();
+  }
+
+  private synchronized void invalidate(Long id) {
+    persons.remove(id);
+    invalidateListings();
+  }
+
+  private synchronized void invalidateListings() {
+    allPersons = null;
+    summaries = null;
+    pages.clear();
+  }
+
+  private void cachePerson(Person person) {
+    if (person.getId_person() != null) {
+      persons.put(person.getId_person(), copy(person));
+    }
+  }
+
+  private List<Person> copies(List<Person> list) {
+    return list.stream().map(this::copy).collect(Collectors.toList());
+  }
+
+  //every person gets its own address, even if the model shares one between persons
+  private Person copy(Person person) {
+    Address address = person.getAddress();
+    Address addressCopy = address == null ? null : new Address(address.getId_address(), address.getStreet(), address.getStreetNumber(),
+                                                                address.getZipCode(), address.getCity(), address.getCountry());
+    return new Person(person.getId_person(), addressCopy, person.getFirstName(), person.getLastName(), person.getBirthdate(), person.getGender());
+  }
+
+  //access order, the least recently used entry is dropped once the map is full
+  private <K, V> Map<K, V> lruMap(int maxSize) {
+    return new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+        if (size() > maxSize) {
+          evictions++;
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+}
@@ -16,166 +16,434 @@ package ch.abacus.db;
 
 import ch.abacus.common.DbConst;
 import ch.abacus.common.JPAStatments;
+import ch.abacus.common.SortKey;
+import ch.abacus.db.components.DeferredSweeper;
 import ch.abacus.db.components.EntitymanagerUtil;
+import ch.abacus.db.components.IdAllocator;
+import ch.abacus.db.components.NaturalKey;
 import ch.abacus.db.entity.Address;
+import ch.abacus.db.entity.Gender;
 import ch.abacus.db.entity.Person;
+import ch.abacus.db.entity.PersonSummary;
+import org.hibernate.Hibernate;
+import org.hibernate.query.NativeQuery;
 
+import javax.persistence.EntityManager;
 import javax.persistence.EntityTransaction;
 import javax.persistence.Query;
 import javax.persistence.TypedQuery;
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Callable;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public class JPAModelImpl implements Model {
 
-  private EntityTransaction transaction;
+  private int batchSize = DbConst.BATCHSIZE;
+  private DeferredSweeper addressSweeper; //null -> unused addresses are deleted right after each update
+  private volatile Consumer<Throwable> sweepConsumer;
+
+  public void setBatchSize(int batchSize) {
+    this.batchSize = batchSize;
+  }
+
+  //same trade-off as SQLModelImpl.setDeferredAddressCleanup
+  public synchronized void setDeferredAddressCleanup(boolean deferred) {
+    if (deferred && addressSweeper == null) {
+      addressSweeper = new DeferredSweeper(DbConst.ADDRESSSWEEPER, DbConst.ADDRESSSWEEPDELAYMILLIS, () -> sweepNotUsedAddresses(sweepConsumer));
+    } else if (!deferred && addressSweeper != null) {
+      addressSweeper.shutdown();
+      addressSweeper = null;
+    }
+  }
 
   @Override
   public Person savePerson(Person person, Consumer<Throwable> consumer) {
-    Optional<Long> existingPersonId = getPersonId(person, consumer);
-    existingPersonId.ifPresent(person::setId_person);
+    return EntitymanagerUtil.getInstance().unitOfWork(() -> inTransaction(null, consumer, () -> {
+      Address address = saveAddress(person.getAddress(), consumer);
+      if (address == null) {
+        return null;
+      }
+      person.setAddress(address);
+
+      long allocatedId = IdAllocator.getInstance().next(DbConst.PERSONSMALL);
+      int affectedRows = upsertQuery(JPAStatments.UPSERT_PERSON)
+          .setParameter(1, allocatedId)
+          .setParameter(2, address.getId_address())
+          .setParameter(3, person.getFirstName())
+          .setParameter(4, person.getLastName())
+          .setParameter(5, person.getBirthdate())
+          .setParameter(6, String.valueOf(person.getGender()))
+          .executeUpdate();
+      Long id = upsertedId(allocatedId, affectedRows);
+      if (affectedRows == 0) { //the person already existed, the caller gets the stored row like from the SQL backend
+        return getPersonById(id, consumer).orElse(null);
+      }
+      person.setId_person(id);
+      return person;
+    }));
+  }
 
-    person.setAddress(saveAddress(person.getAddress(), consumer));
+  //a native statement evicts the whole second-level cache unless its query spaces are known.
+  //The upsert only inserts new rows, so it is bound to a space no cached entity belongs to
+  private Query upsertQuery(String sql) {
+    return EntitymanagerUtil.getInstance().getEm().createNativeQuery(sql)
+        .unwrap(NativeQuery.class)
+        .addSynchronizedQuerySpace(JPAStatments.UPSERT_QUERY_SPACE);
+  }
 
-    if (existingPersonId.isEmpty()) {
+  //useAffectedRows=true: 1 -> the row was inserted with the allocated id, 0 -> it already existed and LAST_INSERT_ID(id) points to it
+  private Long upsertedId(long allocatedId, int affectedRows) {
+    if (affectedRows == 1) {
+      return allocatedId;
+    }
+    Number id = (Number) EntitymanagerUtil.getInstance().getEm().createNativeQuery(JPAStatments.SELECT_LAST_INSERT_ID).getSingleResult();
+    return id.longValue();
+  }
+
+  //one transaction for all chunks, after a failure nothing is kept and 0 is the true count
+  @Override
+  public int saveAll(Collection<Person> persons, Consumer<Throwable> consumer) {
+    return EntitymanagerUtil.getInstance().unitOfWork(() -> {
       EntitymanagerUtil emu = EntitymanagerUtil.getInstance();
-      transaction = emu.begin();
+      EntityTransaction transaction = emu.begin();
       try {
-        emu.getEm().persist(person);
+        Map<String, Long> addressIds = new HashMap<>(); //natural key -> id of every address already resolved during this import
+        List<Person> chunk = new ArrayList<>(batchSize);
+        int saved = 0;
+        for (Person person : persons) {
+          chunk.add(person);
+          if (chunk.size() == batchSize) {
+            saved += saveChunk(chunk, addressIds);
+            chunk.clear();
+          }
+        }
+        if (!chunk.isEmpty()) {
+          saved += saveChunk(chunk, addressIds);
+        }
         emu.commitTransaction();
-        return person;
+        return saved;
       } catch (Exception e) {
         if (transaction.isActive()) {
           transaction.rollback();
-          deleteById(person.getAddress().getId_address(), false, consumer);
         }
         consumer.accept(e);
-        return null;
+        return 0;
+      }
+    });
+  }
+
+  private int saveChunk(List<Person> chunk, Map<String, Long> addressIds) {
+    EntityManager em = EntitymanagerUtil.getInstance().getEm();
+    Map<String, Address> missingAddresses = new LinkedHashMap<>();
+    for (Person person : chunk) {
+      String key = NaturalKey.of(person.getAddress());
+      if (!addressIds.containsKey(key)) {
+        missingAddresses.putIfAbsent(key, person.getAddress());
+      }
+    }
+    if (!missingAddresses.isEmpty()) {
+      Query addressQuery = em.createNativeQuery(JPAStatments.SELECT_ADDRESSES_BY_NATURAL_KEYS + NaturalKey.hashes(missingAddresses.size())
+                                                + JPAStatments.CLOSING_BRACKET, Address.class);
+      int index = 1;
+      for (Address address : missingAddresses.values()) {
+        addressQuery.setParameter(index++, address.getStreet())
+            .setParameter(index++, address.getStreetNumber())
+            .setParameter(index++, address.getZipCode())
+            .setParameter(index++, address.getCity())
+            .setParameter(index++, address.getCountry());
+      }
+      @SuppressWarnings("unchecked")
+      List<Address> candidates = addressQuery.getResultList();
+      for (Address existing : candidates) {
+        String key = NaturalKey.of(existing);
+        if (missingAddresses.remove(key) != null) {
+          addressIds.put(key, existing.getId_address());
+        }
       }
+
+      Map<String, Address> newAddresses = new LinkedHashMap<>();
+      for (Map.Entry<String, Address> entry : missingAddresses.entrySet()) {
+        Address address = entry.getValue();
+        Address newAddress = new Address(address.getStreet(), address.getStreetNumber(), address.getZipCode(), address.getCity(), address.getCountry());
+        em.persist(newAddress);
+        newAddresses.put(entry.getKey(), newAddress);
+      }
+      em.flush();
+      newAddresses.forEach((key, address) -> addressIds.put(key, address.getId_address()));
     }
-    return null;
+
+    Map<String, Person> newPersons = new LinkedHashMap<>();
+    for (Person person : chunk) {
+      Long addressId = addressIds.get(NaturalKey.of(person.getAddress()));
+      newPersons.putIfAbsent(NaturalKey.of(person, addressId), person);
+    }
+    if (!newPersons.isEmpty()) {
+      Query personQuery = em.createNativeQuery(JPAStatments.SELECT_PERSONS_BY_NATURAL_KEYS + NaturalKey.hashes(newPersons.size())
+                                               + JPAStatments.CLOSING_BRACKET);
+      int index = 1;
+      for (Person person : newPersons.values()) {
+        personQuery.setParameter(index++, person.getFirstName())
+            .setParameter(index++, person.getLastName())
+            .setParameter(index++, person.getBirthdate())
+            .setParameter(index++, String.valueOf(person.getGender()))
+            .setParameter(index++, addressIds.get(NaturalKey.of(person.getAddress())));
+      }
+      @SuppressWarnings("unchecked")
+      List<Object[]> existingPersons = personQuery.getResultList();
+      for (Object[] row : existingPersons) { //native rows: the gender comes as the lower-case enum label
+        newPersons.remove(NaturalKey.of((String) row[0], (String) row[1], ((Date) row[2]).toLocalDate(),
+                                        Gender.valueOf(((String) row[3]).toUpperCase(Locale.ROOT)), ((Number) row[4]).longValue()));
+      }
+    }
+
+    for (Person person : newPersons.values()) {
+      Address address = em.getReference(Address.class, addressIds.get(NaturalKey.of(person.getAddress())));
+      em.persist(new Person(person.getFirstName(), person.getLastName(), person.getBirthdate(), person.getGender(), address));
+    }
+    em.flush();
+    em.clear(); //keeps the persistence context bounded to one chunk
+    return newPersons.size();
   }
 
   private Address saveAddress(Address address, Consumer<Throwable> consumer) {
-    Optional<Long> existingAddressId = getAddressId(address, consumer);
-    if (existingAddressId.isPresent()) {
-      return getAddressById(existingAddressId.get(), consumer).orElse(null);
-    } else {
-      EntitymanagerUtil emu = EntitymanagerUtil.getInstance();
-      transaction = emu.begin();
-      try {
-        emu.getEm().persist(address);
+    return inTransaction(null, consumer, () -> {
+      long allocatedId = IdAllocator.getInstance().next(DbConst.ADDRESSSMALL);
+      int affectedRows = upsertQuery(JPAStatments.UPSERT_ADDRESS)
+          .setParameter(1, allocatedId)
+          .setParameter(2, address.getStreet())
+          .setParameter(3, address.getStreetNumber())
+          .setParameter(4, address.getZipCode())
+          .setParameter(5, address.getCity())
+          .setParameter(6, address.getCountry())
+          .executeUpdate();
+      Long id = upsertedId(allocatedId, affectedRows);
+      if (affectedRows == 0) {
+        return getAddressById(id, consumer).orElse(null);
+      }
+      address.setId_address(id);
+      return address;
+    });
+  }
+
+  //joins the transaction of the caller, so a new address is only ever committed together with the person using it
+  //and the orphan sweep can't delete it in between. Only the outermost call commits
+  private <T> T inTransaction(T fallback, Consumer<Throwable> consumer, Callable<T> work) {
+    EntitymanagerUtil emu = EntitymanagerUtil.getInstance();
+    EntityTransaction transaction = emu.getEm().getTransaction();
+    boolean outermost = !transaction.isActive();
+    emu.begin();
+    try {
+      T result = work.call();
+      if (outermost) {
         emu.commitTransaction();
-        address.setId_address(getAddressId(address, consumer).get()); //sets the id of the address
-        return address;
-      } catch (Exception e) {
-        if (transaction.isActive()) {
-          transaction.rollback();
-        }
-        consumer.accept(e);
-        return null;
       }
+      return result;
+    } catch (Exception e) {
+      if (transaction.isActive()) {
+        transaction.rollback();
+      }
+      consumer.accept(e);
+      return fallback;
     }
   }
 
   @Override
   public void delete(Long personId, Consumer<Throwable> consumer) {
-    Person personToDelete = getPersonById(personId, consumer).get();
-    Long addressId = personToDelete.getAddress().getId_address();
-    deleteById(personId, true, consumer);
-    if (canDelete(addressId, consumer)) {
-      deleteById(addressId, false, consumer);
-    }
+    EntitymanagerUtil.getInstance().unitOfWork(() -> {
+      Person personToDelete = getPersonById(personId, consumer).get();
+      Long addressId = personToDelete.getAddress().getId_address();
+      deleteById(personId, true, consumer);
+      if (canDelete(addressId, consumer)) {
+        deleteById(addressId, false, consumer);
+      }
+    });
   }
 
   @Override
   public Optional<Person> getPersonById(Long id, Consumer<Throwable> consumer) {
     EntitymanagerUtil emu = EntitymanagerUtil.getInstance();
-    try {
-      Person person = emu.getEm().find(Person.class, id);
-      return Optional.ofNullable(person);
-    } catch (Exception e) {
-      consumer.accept(e);
-      return Optional.empty();
-    }
+    return emu.unitOfWork(() -> {
+      try {
+        EntityManager em = emu.getEm();
+        Map<String, Object> hints = Map.of(DbConst.HINTFETCHGRAPH, em.getEntityGraph(JPAStatments.GRAPH_PERSON_WITH_ADDRESS));
+        Person person = em.find(Person.class, id, hints);
+        if (person != null) {
+          //a second-level cache hit ignores the fetch graph, the address must be loaded before the EntityManager is closed
+          Hibernate.initialize(person.getAddress());
+        }
+        return Optional.ofNullable(person);
+      } catch (Exception e) {
+        consumer.accept(e);
+        return Optional.empty();
+      }
+    });
   }
 
   @Override
   public Person updatePerson(Long id, Person person, Consumer<Throwable> consumer) {
-    Optional<Person> p = samePerson(id, person, consumer);
-    if (p.isPresent()) {
-      return p.get();
-    }
+    return EntitymanagerUtil.getInstance().unitOfWork(() -> {
+      Optional<Person> p = samePerson(id, person, consumer);
+      if (p.isPresent()) {
+        return p.get();
+      }
 
-    Address oldAddress = getPersonById(id, consumer)
-        .map(Person::getAddress)
-        .orElseThrow(() -> new IllegalArgumentException(DbConst.NOPERSONFOUND + id));
+      Address oldAddress = getPersonById(id, consumer)
+          .map(Person::getAddress)
+          .orElseThrow(() -> new IllegalArgumentException(DbConst.NOPERSONFOUND + id));
 
-    Optional<Address> newAddress;
-    boolean addressAlreadyExists;
-    boolean sameAddress = false;
+      Optional<Address> newAddress;
+      boolean addressAlreadyExists;
+      boolean sameAddress = false;
+      Person updatedPerson = person;
 
-    addressAlreadyExists = addressAlreadyRegistered(person.getAddress(), consumer).isPresent();
-    newAddress = Optional.ofNullable(person.getAddress());
-    if (newAddress.get().equals(oldAddress)) {
-      sameAddress = true;
-    }
+      addressAlreadyExists = addressAlreadyRegistered(person.getAddress(), consumer).isPresent();
+      newAddress = Optional.ofNullable(person.getAddress());
+      if (newAddress.get().equals(oldAddress)) {
+        sameAddress = true;
+      }
 
-    int usagetimesOldAddress = getPersonCountByAddressId(oldAddress.getId_address(), consumer);
-    if (usagetimesOldAddress > 1 && !sameAddress) {
-      newAddress = Optional.ofNullable(saveAddress(newAddress.get(), consumer));
-    } else if (!addressAlreadyExists) {
-      newAddress = editAddressWithinTransaction(oldAddress.getId_address(), newAddress.get(), consumer);
-    }
-    if (newAddress.isPresent()) {
-      person = new Person(id, newAddress.get(), person.getFirstName(), person.getLastName(), person.getBirthdate(), person.getGender());
-      editPersonWithinTransaction(id, person, consumer);
-    }
+      int usagetimesOldAddress = getPersonCountByAddressId(oldAddress.getId_address(), consumer);
+      boolean saveNewAddress = usagetimesOldAddress > 1 && !sameAddress;
+      Optional<Address> address = newAddress;
+      updatedPerson = inTransaction(person, consumer, () -> { //the address and the person pointing to it are committed together
+        Optional<Address> savedAddress = address;
+        if (saveNewAddress) {
+          savedAddress = Optional.ofNullable(saveAddress(address.get(), consumer));
+        } else if (!addressAlreadyExists) {
+          savedAddress = editAddressWithinTransaction(oldAddress.getId_address(), address.get(), consumer);
+        }
+        if (savedAddress.isEmpty()) {
+          return person;
+        }
+        Person edited = new Person(id, savedAddress.get(), person.getFirstName(), person.getLastName(), person.getBirthdate(), person.getGender());
+        editPersonWithinTransaction(id, edited, consumer);
+        return edited;
+      });
 
-    deleteNotUsedAddresses(consumer);
+      cleanupNotUsedAddresses(consumer);
 
-    return person;
+      return updatedPerson;
+    });
   }
 
   @Override
   public List<Person> findAllPerson(Consumer<Throwable> consumer) {
     EntitymanagerUtil emu = EntitymanagerUtil.getInstance();
+    return emu.unitOfWork(() -> {
+      try {
+        TypedQuery<Person> query = emu.getEm().createQuery(JPAStatments.SELECT_ALL_PERSONS_WITH_ADDRESS, Person.class);
+        return query.getResultList();
+      } catch (Exception e) {
+        consumer.accept(e);
+        return Collections.emptyList();
+      }
+    });
+  }
+
+  @Override
+  public List<PersonSummary> findAllSummaries(Consumer<Throwable> consumer) {
+    EntitymanagerUtil emu = EntitymanagerUtil.getInstance();
+    return emu.unitOfWork(() -> {
+      try {
+        return emu.getEm().createQuery(JPAStatments.SELECT_PERSON_SUMMARIES, PersonSummary.class).getResultList();
+      } catch (Exception e) {
+        consumer.accept(e);
+        return Collections.emptyList();
+      }
+    });
+  }
+
+  @Override
+  public Stream<Person> streamAll(Consumer<Throwable> consumer) {
+    //own EntityManager, the stream may be consumed long after this call and on another thread
+    EntityManager em = EntitymanagerUtil.getInstance().createEntityManager();
+    EntityTransaction streamTransaction = em.getTransaction();
     try {
-      TypedQuery<Person> query = emu.getEm().createQuery(JPAStatments.SELECT_PERSON, Person.class);
-      return query.getResultList();
+      streamTransaction.begin(); //the whole stream reads from one snapshot
+      return em.createQuery(JPAStatments.SELECT_ALL_PERSONS_WITH_ADDRESS, Person.class)
+          .setHint(DbConst.HINTFETCHSIZE, Integer.MIN_VALUE)
+          .setHint(DbConst.HINTREADONLY, true)
+          .getResultStream()
+          .peek(person -> {
+            em.detach(person); //keeps the persistence context from growing with every row
+            em.detach(person.getAddress());
+          })
+          .onClose(() -> closeStream(em, consumer));
     } catch (Exception e) {
+      closeStream(em, consumer);
       consumer.accept(e);
-      return Collections.emptyList();
+      return Stream.empty();
     }
   }
 
-  private Optional<Address> getAddressById(Long id, Consumer<Throwable> consumer) {
+  private void closeStream(EntityManager em, Consumer<Throwable> consumer) {
     try {
-      EntitymanagerUtil emu = EntitymanagerUtil.getInstance();
-      Address address = emu.getEm().find(Address.class, id);
-      return Optional.ofNullable(address);
+      if (em.getTransaction().isActive()) {
+        em.getTransaction().rollback();
+      }
     } catch (Exception e) {
       consumer.accept(e);
-      return Optional.empty();
+    } finally {
+      em.close();
     }
   }
 
-  private Optional<Long> getPersonId(Person person, Consumer<Throwable> consumer) {
+  @Override
+  public List<Person> findPersonsPage(Long afterId, int limit, SortKey sortKey, Consumer<Throwable> consumer) {
     EntitymanagerUtil emu = EntitymanagerUtil.getInstance();
-    try {
-      TypedQuery<Long> query = emu.getEm().createQuery(JPAStatments.SELECT_ID_BY_PERSON, Long.class);
-      query.setParameter(DbConst.FIRSTNAME, person.getFirstName());
-      query.setParameter(DbConst.LASTNAME, person.getLastName());
-      query.setParameter(DbConst.GENDER, person.getGender());
-      query.setParameter(DbConst.BIRTHDATE, person.getBirthdate());
-      List<Long> id = query.getResultList();
-      if (!id.isEmpty()) {
-        return Optional.of(id.get(0));
-      } else {
-        return Optional.empty();
+    return emu.unitOfWork(() -> {
+      try {
+        TypedQuery<Person> query;
+        if (afterId == null) {
+          query = emu.getEm().createQuery(String.format(JPAStatments.SELECT_PERSONS_PAGE, sortKey.getColumn()), Person.class);
+        } else if (sortKey == SortKey.ID) {
+          query = emu.getEm().createQuery(JPAStatments.SELECT_PERSONS_PAGE_AFTER_ID, Person.class)
+              .setParameter(DbConst.IDPERSON, afterId);
+        } else {
+          Person last = emu.getEm().find(Person.class, afterId); //JPQL has no row value comparison, so the sort value of the anchor is read first
+          if (last == null) {
+            return Collections.emptyList();
+          }
+          query = emu.getEm().createQuery(String.format(JPAStatments.SELECT_PERSONS_PAGE_AFTER, sortKey.getColumn()), Person.class)
+              .setParameter(DbConst.SORTVALUE, sortValue(last, sortKey))
+              .setParameter(DbConst.IDPERSON, afterId);
+        }
+        return query.setMaxResults(limit).getResultList();
+      } catch (Exception e) {
+        consumer.accept(e);
+        return Collections.emptyList();
       }
+    });
+  }
+
+  private Object sortValue(Person person, SortKey sortKey) {
+    switch (sortKey) {
+      case FIRSTNAME:
+        return person.getFirstName();
+      case LASTNAME:
+        return person.getLastName();
+      case BIRTHDATE:
+        return person.getBirthdate();
+      default:
+        return person.getId_person();
+    }
+  }
+
+  private Optional<Address> getAddressById(Long id, Consumer<Throwable> consumer) {
+    try {
+      EntitymanagerUtil emu = EntitymanagerUtil.getInstance();
+      Address address = emu.getEm().find(Address.class, id);
+      return Optional.ofNullable(address);
     } catch (Exception e) {
       consumer.accept(e);
       return Optional.empty();
@@ -185,13 +453,9 @@ public class JPAModelImpl implements Model {
   private Optional<Long> getAddressId(Address address, Consumer<Throwable> consumer) {
     EntitymanagerUtil emu = EntitymanagerUtil.getInstance();
     try {
-      TypedQuery<Long> query = emu.getEm().createQuery(JPAStatments.SELECT_ID_BY_ADDRESS, Long.class);
-      query.setParameter(DbConst.STREET, address.getStreet());
-      query.setParameter(DbConst.STREETNUMBER, address.getStreetNumber());
-      query.setParameter(DbConst.CITY, address.getCity());
-      query.setParameter(DbConst.POSTALCODE, address.getZipCode());
-      query.setParameter(DbConst.COUNTRY, address.getCountry());
-      List<Long> resultList = query.getResultList();
+      TypedQuery<Long> query = emu.getEm().createNamedQuery(JPAStatments.NAMED_SELECT_ID_BY_ADDRESS, Long.class);
+      setAddressFields(query, address);
+      List<Long> resultList = query.setMaxResults(1).getResultList();
       if (!resultList.isEmpty()) {
         return Optional.of(resultList.get(0));
       } else {
@@ -203,20 +467,9 @@ public class JPAModelImpl implements Model {
     }
   }
 
-  private List<Address> findAllAddresses(Consumer<Throwable> consumer) {
-    EntitymanagerUtil emu = EntitymanagerUtil.getInstance();
-    try {
-      TypedQuery<Address> query = emu.getEm().createQuery(JPAStatments.SELECT_ADDRESS, Address.class);
-      return query.getResultList();
-    } catch (Exception e) {
-      consumer.accept(e);
-      return Collections.emptyList();
-    }
-  }
-
   private void deleteById(Long id, boolean isPerson, Consumer<Throwable> consumer) {
     EntitymanagerUtil emu = EntitymanagerUtil.getInstance();
-    transaction = emu.begin();
+    EntityTransaction transaction = emu.begin();
     try {
       if (isPerson) {
         Person person = emu.getEm().find(Person.class, id);
@@ -240,7 +493,7 @@ public class JPAModelImpl implements Model {
 
   private void deleteAll(Consumer<Throwable> consumer) {
     EntitymanagerUtil emu = EntitymanagerUtil.getInstance();
-    transaction = emu.begin();
+    EntityTransaction transaction = emu.begin();
     try {
       Query query = emu.getEm().createQuery(JPAStatments.DELETE_ALL_FROM_PERSON);
       query.executeUpdate();
@@ -256,47 +509,60 @@ public class JPAModelImpl implements Model {
   }
 
   private boolean canDelete(Long addressId, Consumer<Throwable> consumer) {
-    int personCount = getPersonCountByAddressId(addressId, consumer);
-    return personCount == 0;
+    EntitymanagerUtil emu = EntitymanagerUtil.getInstance();
+    try {
+      //stops at the first person using the address instead of counting all of them
+      return emu.getEm().createNamedQuery(JPAStatments.NAMED_EXISTS_PERSON_BY_ADDRESS, Long.class)
+          .setParameter(DbConst.IDADDRESS, addressId)
+          .setMaxResults(1)
+          .getResultList()
+          .isEmpty();
+    } catch (Exception e) {
+      consumer.accept(e);
+      return false;
+    }
   }
 
-  private void deleteNotUsedAddresses(Consumer<Throwable> consumer) {
-    List<Address> addresses = findAllAddresses(consumer);
-    for (Address address : addresses) {
-      if (getPersonCountByAddressId(address.getId_address(), consumer) == 0) {
-        deleteById(address.getId_address(), false, consumer);
-      }
+  private synchronized void cleanupNotUsedAddresses(Consumer<Throwable> consumer) {
+    if (addressSweeper == null) {
+      deleteNotUsedAddresses(consumer);
+    } else {
+      sweepConsumer = consumer;
+      addressSweeper.request();
     }
   }
 
-  private void editPersonWithinTransaction(Long personId, Person person, Consumer<Throwable> consumer) {
-    EntitymanagerUtil emu = EntitymanagerUtil.getInstance();
-    transaction = emu.begin();
+  private void deleteNotUsedAddresses(Consumer<Throwable> consumer) {
+    inTransaction(null, consumer, () -> EntitymanagerUtil.getInstance().getEm().createQuery(JPAStatments.DELETE_UNUSED_ADDRESSES).executeUpdate());
+  }
+
+  //runs on the sweeper thread outside of any unit of work
+  private void sweepNotUsedAddresses(Consumer<Throwable> consumer) {
+    EntityManager em = EntitymanagerUtil.getInstance().createEntityManager();
+    EntityTransaction sweepTransaction = em.getTransaction();
     try {
-      editPerson(personId, person, consumer);
-      emu.commitTransaction();
+      sweepTransaction.begin();
+      em.createQuery(JPAStatments.DELETE_UNUSED_ADDRESSES).executeUpdate();
+      sweepTransaction.commit();
     } catch (Exception e) {
-      if (transaction.isActive()) {
-        transaction.rollback();
+      if (sweepTransaction.isActive()) {
+        sweepTransaction.rollback();
       }
       consumer.accept(e);
+    } finally {
+      em.close();
     }
   }
 
+  private void editPersonWithinTransaction(Long personId, Person person, Consumer<Throwable> consumer) {
+    inTransaction(null, consumer, () -> {
+      editPerson(personId, person, consumer);
+      return null;
+    });
+  }
+
   private Optional<Address> editAddressWithinTransaction(Long id, Address address, Consumer<Throwable> consumer) {
-    EntitymanagerUtil emu = EntitymanagerUtil.getInstance();
-    transaction = emu.begin();
-    try {
-      Optional<Address> updatedAddress = editAddress(id, address, consumer);
-      emu.commitTransaction();
-      return updatedAddress;
-    } catch (Exception e) {
-      if (transaction.isActive()) {
-        transaction.rollback();
-      }
-      consumer.accept(e);
-      return Optional.empty();
-    }
+    return inTransaction(Optional.empty(), consumer, () -> editAddress(id, address, consumer));
   }
 
   private void editPerson(Long id, Person person, Consumer<Throwable> consumer) {
@@ -353,23 +619,35 @@ public class JPAModelImpl implements Model {
   }
 
   private Optional<Address> addressAlreadyRegistered(Address address, Consumer<Throwable> consumer) {
-    List<Address> list = findAllAddresses(consumer);
-    for (Address ad : list) {
-      if (ad.getStreet().equals(address.getStreet()) && ad.getStreetNumber().equals(address.getStreetNumber()) && ad.getZipCode() == address.getZipCode() && ad.getCity().equals(address.getCity()) && ad.getCountry().equals(address.getCountry())) {
-        return Optional.of(ad);
-      }
+    EntitymanagerUtil emu = EntitymanagerUtil.getInstance();
+    try {
+      TypedQuery<Address> query = emu.getEm().createNamedQuery(JPAStatments.NAMED_SELECT_ADDRESS_BY_FIELDS, Address.class);
+      setAddressFields(query, address);
+      return query.setMaxResults(1).getResultStream().findFirst();
+    } catch (Exception e) {
+      consumer.accept(e);
+      return Optional.empty();
     }
-    return Optional.empty();
+  }
+
+  private void setAddressFields(TypedQuery<?> query, Address address) {
+    query.setParameter(DbConst.STREET, address.getStreet());
+    query.setParameter(DbConst.STREETNUMBER, address.getStreetNumber());
+    query.setParameter(DbConst.CITY, address.getCity());
+    query.setParameter(DbConst.POSTALCODE, address.getZipCode());
+    query.setParameter(DbConst.COUNTRY, address.getCountry());
   }
 
   private int getPersonCountByAddressId(Long addressId, Consumer<Throwable> consumer) {
-    int count = 0;
-    List<Person> people = findAllPerson(consumer);
-    for (Person person : people) {
-      if (person.getAddress().getId_address().equals(addressId)) {
-        count++;
-      }
+    EntitymanagerUtil emu = EntitymanagerUtil.getInstance();
+    try {
+      return emu.getEm().createNamedQuery(JPAStatments.NAMED_USAGECOUNT_FROM_PERSON, Long.class)
+          .setParameter(DbConst.IDADDRESS, addressId)
+          .getSingleResult()
+          .intValue();
+    } catch (Exception e) {
+      consumer.accept(e);
+      return 0;
     }
-    return count;
   }
-}
\ No newline at end of file
+}
@@ -14,16 +14,22 @@
  */
 package ch.abacus.db;
 
+import ch.abacus.common.SortKey;
 import ch.abacus.db.entity.Person;
+import ch.abacus.db.entity.PersonSummary;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public interface Model {
 
   Person savePerson(Person person, Consumer<Throwable> consumer) throws Throwable;
 
+  int saveAll(Collection<Person> persons, Consumer<Throwable> consumer) throws Throwable; //number of persons saved, duplicates are skipped and a failure saves none
+
   Optional<Person> getPersonById(Long id, Consumer<Throwable> consumer) throws Throwable;
 
   Person updatePerson(Long id, Person person, Consumer<Throwable> consumer) throws Throwable;
@@ -31,4 +37,10 @@ public interface Model {
   void delete(Long personId, Consumer<Throwable> consumer) throws Throwable;
 
   List<Person> findAllPerson(Consumer<Throwable> consumer) throws Throwable;
+
+  List<PersonSummary> findAllSummaries(Consumer<Throwable> consumer) throws Throwable; //id, firstname and lastname only, ordered by id
+
+  Stream<Person> streamAll(Consumer<Throwable> consumer) throws Throwable; //ordered by id, must be closed, it holds a database connection until then
+
+  List<Person> findPersonsPage(Long afterId, int limit, SortKey sortKey, Consumer<Throwable> consumer) throws Throwable; //afterId = id of the last person on the previous page, null for the first page
 }
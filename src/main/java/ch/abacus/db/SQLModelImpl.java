@@ -16,23 +16,40 @@ package ch.abacus.db;
 
 import ch.abacus.common.DbConst;
 import ch.abacus.common.SQLStatments;
+import ch.abacus.common.SortKey;
 import ch.abacus.common.State;
 import ch.abacus.controller.Controller;
+import ch.abacus.db.components.ChangeRegistry;
+import ch.abacus.db.components.ConnectionPool;
+import ch.abacus.db.components.DeferredSweeper;
+import ch.abacus.db.components.IdAllocator;
+import ch.abacus.db.components.NaturalKey;
+import ch.abacus.db.components.SchemaMigrator;
+import ch.abacus.db.components.SqlOperation;
 import ch.abacus.db.entity.Address;
 import ch.abacus.db.entity.Gender;
 import ch.abacus.db.entity.Person;
+import ch.abacus.db.entity.PersonSummary;
 
 import java.sql.Connection;
 import java.sql.Date;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static ch.abacus.db.entity.Gender.FEMALE;
 import static ch.abacus.db.entity.Gender.MALE;
@@ -40,16 +57,38 @@ import static ch.abacus.db.entity.Gender.MALE;
 public class SQLModelImpl implements Model {
 
   private final Controller controller;
-  private Connection connection;
+  private final ConnectionPool connectionPool;
+  private final ThreadLocal<Connection> currentConnection = new ThreadLocal<>(); //connection borrowed by the operation running on this thread
+  private final ThreadLocal<Boolean> rollbackOnly = ThreadLocal.withInitial(() -> false); //a nested call failed, the outermost one must not commit
+  private int batchSize = DbConst.BATCHSIZE;
+  private DeferredSweeper addressSweeper; //null -> unused addresses are deleted right after each update
+  private volatile Consumer<Throwable> sweepConsumer;
 
   public SQLModelImpl(Controller controller) {
     this.controller = controller;
-    connection = getConnection();
+    this.connectionPool = ConnectionPool.getInstance();
+    SchemaMigrator.getInstance().migrate(controller);
+  }
+
+  public void setBatchSize(int batchSize) {
+    this.batchSize = batchSize;
+  }
+
+  //off by default. Every update ends with a sweep over the addresses no person uses any more, for many updates in a row
+  //(scripted edits, benchmarks) that is one sweep per ADDRESSSWEEPDELAYMILLIS instead of one per update.
+  //Unused addresses then stay in the table until the sweep ran, which only matters for code that counts addresses
+  public synchronized void setDeferredAddressCleanup(boolean deferred) {
+    if (deferred && addressSweeper == null) {
+      addressSweeper = new DeferredSweeper(DbConst.ADDRESSSWEEPER, DbConst.ADDRESSSWEEPDELAYMILLIS, () -> deleteUnsedAddress(sweepConsumer));
+    } else if (!deferred && addressSweeper != null) {
+      addressSweeper.shutdown();
+      addressSweeper = null;
+    }
   }
 
   public void commit() {
     try {
-      connection.commit();
+      currentConnection.get().commit();
     } catch (SQLException e) {
       throw new RuntimeException(e);
     }
@@ -57,150 +96,238 @@ public class SQLModelImpl implements Model {
 
   @Override
   public Person savePerson(Person person, Consumer<Throwable> consumer) {
-    Optional<Long> existingPersonId = getPersonId(person, consumer);
-    Optional<Long> existingAddressId = getAddressId(person.getAddress(), consumer);
+    return inTransaction(null, consumer, connection -> {
+      Address savedAddress = saveAddress(person.getAddress(), consumer);
+      if (savedAddress == null) {
+        return null;
+      }
 
-    if (existingPersonId.isEmpty() && existingAddressId.isPresent()) {
-      try (PreparedStatement preparedStatement = connection.prepareStatement(
-          SQLStatments.SAVE_PERSON, Statement.RETURN_GENERATED_KEYS)) {
-        connection.setAutoCommit(false);
-        preparedStatement.setLong(1, existingAddressId.get());
-        preparedStatement.setString(2, person.getFirstName());
-        preparedStatement.setString(3, person.getLastName());
-        preparedStatement.setDate(4, Date.valueOf(person.getBirthdate()));
-        preparedStatement.setString(5, String.valueOf(person.getGender()));
-        preparedStatement.executeUpdate();
+      long allocatedId = IdAllocator.getInstance().next(DbConst.PERSONSMALL);
+      try (PreparedStatement preparedStatement = connection.prepareStatement(SQLStatments.UPSERT_PERSON)) {
+        preparedStatement.setLong(1, allocatedId);
+        preparedStatement.setLong(2, savedAddress.getId_address());
+        preparedStatement.setString(3, person.getFirstName());
+        preparedStatement.setString(4, person.getLastName());
+        preparedStatement.setDate(5, Date.valueOf(person.getBirthdate()));
+        preparedStatement.setString(6, String.valueOf(person.getGender()));
+        int affectedRows = preparedStatement.executeUpdate();
+        long id = upsertedId(connection, allocatedId, affectedRows);
+
+        if (affectedRows == 0) { // Person and address exists
+          controller.addState(State.UNAVAILABLETOSAVE);
+          return getPersonById(id, consumer).orElse(null);
+        }
+        return new Person(id, savedAddress, person.getFirstName(), person.getLastName(),
+                          person.getBirthdate(), person.getGender());
+      }
+    });
+  }
 
-        ResultSet generatedKeys = preparedStatement.getGeneratedKeys();
-        if (generatedKeys.next()) {
-          Long id = generatedKeys.getLong(1);
+  //useAffectedRows=true: 1 -> the row was inserted with the allocated id, 0 -> it already existed and LAST_INSERT_ID(id) points to it
+  private long upsertedId(Connection connection, long allocatedId, int affectedRows) throws SQLException {
+    if (affectedRows == 1) {
+      return allocatedId;
+    }
+    try (PreparedStatement lastInsertId = connection.prepareStatement(SQLStatments.SELECT_LAST_INSERT_ID)) {
+      ResultSet resultSet = lastInsertId.executeQuery();
+      resultSet.next();
+      return resultSet.getLong(1);
+    }
+  }
 
-          commit();
-          return new Person(id, person.getAddress(), person.getFirstName(), person.getLastName(),
-                            person.getBirthdate(), person.getGender());
+  //the whole import is one transaction, a failing chunk rolls back the chunks before it so the count stays true
+  @Override
+  public int saveAll(Collection<Person> persons, Consumer<Throwable> consumer) {
+    return inTransaction(0, consumer, connection -> {
+      Map<String, Long> addressIds = new HashMap<>(); //natural key -> id of every address already resolved during this import
+      List<Person> chunk = new ArrayList<>(batchSize);
+      int saved = 0;
+      for (Person person : persons) {
+        chunk.add(person);
+        if (chunk.size() == batchSize) {
+          saved += saveChunk(connection, chunk, addressIds);
+          chunk.clear();
         }
-      } catch (SQLException e) {
-        consumer.accept(e);
-        return null;
       }
+      if (!chunk.isEmpty()) {
+        saved += saveChunk(connection, chunk, addressIds);
+      }
+      return saved;
+    });
+  }
+
+  private int saveChunk(Connection connection, List<Person> chunk, Map<String, Long> addressIds) throws SQLException {
+    Map<String, Address> missingAddresses = new LinkedHashMap<>();
+    for (Person person : chunk) {
+      String key = NaturalKey.of(person.getAddress());
+      if (!addressIds.containsKey(key)) {
+        missingAddresses.putIfAbsent(key, person.getAddress());
+      }
+    }
+    if (!missingAddresses.isEmpty()) {
+      addressIds.putAll(findAddressIds(connection, missingAddresses.values()));
+      missingAddresses.keySet().removeAll(addressIds.keySet());
+      addressIds.putAll(insertAddresses(connection, missingAddresses));
     }
 
-    // Neither person nor address exists || Person exists but address doesn't exist
-    if ((existingPersonId.isEmpty() && existingAddressId.isEmpty()) ||
-        (existingPersonId.isPresent() && existingAddressId.isEmpty())) {
-      Address savedAddress = saveAddress(person.getAddress(), consumer);
-      if (savedAddress != null) {
-        try (PreparedStatement preparedStatement = connection.prepareStatement(
-            SQLStatments.SAVE_PERSON, Statement.RETURN_GENERATED_KEYS)) {
-          connection.setAutoCommit(false);
-          preparedStatement.setLong(1, savedAddress.getId_address());
-          preparedStatement.setString(2, person.getFirstName());
-          preparedStatement.setString(3, person.getLastName());
-          preparedStatement.setDate(4, Date.valueOf(person.getBirthdate()));
-          preparedStatement.setString(5, String.valueOf(person.getGender()));
-          preparedStatement.executeUpdate();
-
-          ResultSet generatedKeys = preparedStatement.getGeneratedKeys();
-          if (generatedKeys.next()) {
-            Long id = generatedKeys.getLong(1);
-
-            commit();
-            return new Person(id, savedAddress, person.getFirstName(), person.getLastName(),
-                              person.getBirthdate(), person.getGender());
-          }
-        } catch (SQLException e) {
-          consumer.accept(e);
-        }
+    Map<String, Person> newPersons = new LinkedHashMap<>();
+    for (Person person : chunk) {
+      Long addressId = addressIds.get(NaturalKey.of(person.getAddress()));
+      newPersons.putIfAbsent(NaturalKey.of(person, addressId), person);
+    }
+    newPersons.keySet().removeAll(findPersonKeys(connection, newPersons.values(), addressIds));
+    return insertPersons(connection, newPersons.values(), addressIds);
+  }
+
+  private Map<String, Long> findAddressIds(Connection connection, Collection<Address> addresses) throws SQLException {
+    Map<String, Long> addressIds = new HashMap<>();
+    try (PreparedStatement preparedStatement = connection.prepareStatement(
+        SQLStatments.SELECT_ADDRESSES_BY_NATURAL_KEYS + NaturalKey.hashes(addresses.size()) + SQLStatments.CLOSING_BRACKET)) {
+      int index = 1;
+      for (Address address : addresses) {
+        preparedStatement.setString(index++, address.getStreet());
+        preparedStatement.setString(index++, address.getStreetNumber());
+        preparedStatement.setInt(index++, address.getZipCode());
+        preparedStatement.setString(index++, address.getCity());
+        preparedStatement.setString(index++, address.getCountry());
+      }
+      ResultSet resultSet = preparedStatement.executeQuery();
+      while (resultSet.next()) {
+        long id = resultSet.getLong(DbConst.IDADDRESS);
+        createAddressFromResultSet(resultSet, id).ifPresent(address -> addressIds.put(NaturalKey.of(address), id));
       }
     }
+    return addressIds;
+  }
 
-    // Person and address exists
-    if (existingPersonId.isPresent() && existingAddressId.isPresent()) {
-      controller.addState(State.UNAVAILABLETOSAVE);
-      return getPersonById(existingPersonId.get(), consumer).orElse(null);
+  private Map<String, Long> insertAddresses(Connection connection, Map<String, Address> addresses) throws SQLException {
+    Map<String, Long> addressIds = new HashMap<>();
+    if (addresses.isEmpty()) {
+      return addressIds;
+    }
+    try (PreparedStatement preparedStatement = connection.prepareStatement(SQLStatments.SAVE_ADDRESS)) {
+      for (Map.Entry<String, Address> entry : addresses.entrySet()) {
+        Address address = entry.getValue();
+        long id = IdAllocator.getInstance().next(DbConst.ADDRESSSMALL);
+        preparedStatement.setLong(1, id);
+        preparedStatement.setString(2, address.getStreet());
+        preparedStatement.setString(3, address.getStreetNumber());
+        preparedStatement.setInt(4, address.getZipCode());
+        preparedStatement.setString(5, address.getCity());
+        preparedStatement.setString(6, address.getCountry());
+        preparedStatement.addBatch();
+        addressIds.put(entry.getKey(), id);
+      }
+      preparedStatement.executeBatch();
     }
+    return addressIds;
+  }
 
-    return person;
+  private Set<String> findPersonKeys(Connection connection, Collection<Person> persons, Map<String, Long> addressIds) throws SQLException {
+    Set<String> personKeys = new HashSet<>();
+    if (persons.isEmpty()) {
+      return personKeys;
+    }
+    try (PreparedStatement preparedStatement = connection.prepareStatement(
+        SQLStatments.SELECT_PERSONS_BY_NATURAL_KEYS + NaturalKey.hashes(persons.size()) + SQLStatments.CLOSING_BRACKET)) {
+      int index = 1;
+      for (Person person : persons) {
+        preparedStatement.setString(index++, person.getFirstName());
+        preparedStatement.setString(index++, person.getLastName());
+        preparedStatement.setDate(index++, Date.valueOf(person.getBirthdate()));
+        preparedStatement.setString(index++, String.valueOf(person.getGender()));
+        preparedStatement.setLong(index++, addressIds.get(NaturalKey.of(person.getAddress())));
+      }
+      ResultSet resultSet = preparedStatement.executeQuery();
+      while (resultSet.next()) {
+        personKeys.add(NaturalKey.of(resultSet.getString(DbConst.FIRSTNAME), resultSet.getString(DbConst.LASTNAME),
+                                     resultSet.getDate(DbConst.BIRTHDATE).toLocalDate(),
+                                     stringToGender(resultSet.getString(DbConst.GENDER)),
+                                     resultSet.getLong(DbConst.FKADDRESS)));
+      }
+    }
+    return personKeys;
+  }
+
+  private int insertPersons(Connection connection, Collection<Person> persons, Map<String, Long> addressIds) throws SQLException {
+    if (persons.isEmpty()) {
+      return 0;
+    }
+    try (PreparedStatement preparedStatement = connection.prepareStatement(SQLStatments.SAVE_PERSON)) {
+      for (Person person : persons) {
+        preparedStatement.setLong(1, IdAllocator.getInstance().next(DbConst.PERSONSMALL));
+        preparedStatement.setLong(2, addressIds.get(NaturalKey.of(person.getAddress())));
+        preparedStatement.setString(3, person.getFirstName());
+        preparedStatement.setString(4, person.getLastName());
+        preparedStatement.setDate(5, Date.valueOf(person.getBirthdate()));
+        preparedStatement.setString(6, String.valueOf(person.getGender()));
+        preparedStatement.addBatch();
+      }
+      preparedStatement.executeBatch();
+    }
+    return persons.size();
   }
 
   private Address saveAddress(Address address, Consumer<Throwable> consumer) {
-    try {
-      Optional<Long> existingAddressId = getAddressId(address, consumer);
-      if (existingAddressId.isPresent()) {
-        return getAddressById(existingAddressId.get(), consumer).orElse(null);
-      } else {
-        try (PreparedStatement preparedStatement = connection.prepareStatement(
-            SQLStatments.SAVE_ADDRESS, Statement.RETURN_GENERATED_KEYS)) {
-          connection.setAutoCommit(false);
-          preparedStatement.setString(1, address.getStreet());
-          preparedStatement.setString(2, address.getStreetNumber());
-          preparedStatement.setInt(3, address.getZipCode());
-          preparedStatement.setString(4, address.getCity());
-          preparedStatement.setString(5, address.getCountry());
-          preparedStatement.executeUpdate();
-
-          ResultSet generatedKeys = preparedStatement.getGeneratedKeys();
-          if (generatedKeys.next()) {
-            Long id = generatedKeys.getLong(1);
-            commit();
-            return new Address(id, address.getStreet(), address.getStreetNumber(),
-                               address.getZipCode(), address.getCity(), address.getCountry());
-          } else {
-            connection.rollback();
-            return null;
-          }
-        } catch (SQLException e) {
-          connection.rollback();
-          consumer.accept(e);
-          return null;
+    return inTransaction(null, consumer, connection -> {
+      long allocatedId = IdAllocator.getInstance().next(DbConst.ADDRESSSMALL);
+      try (PreparedStatement preparedStatement = connection.prepareStatement(SQLStatments.UPSERT_ADDRESS)) {
+        preparedStatement.setLong(1, allocatedId);
+        preparedStatement.setString(2, address.getStreet());
+        preparedStatement.setString(3, address.getStreetNumber());
+        preparedStatement.setInt(4, address.getZipCode());
+        preparedStatement.setString(5, address.getCity());
+        preparedStatement.setString(6, address.getCountry());
+        int affectedRows = preparedStatement.executeUpdate();
+        long id = upsertedId(connection, allocatedId, affectedRows);
+
+        if (affectedRows == 0) {
+          return getAddressById(id, consumer).orElse(null);
         }
+        return new Address(id, address.getStreet(), address.getStreetNumber(),
+                           address.getZipCode(), address.getCity(), address.getCountry());
       }
-    } catch (SQLException e) {
-      try {
-        connection.rollback();
-      } catch (SQLException ex) {
-        consumer.accept(ex);
-      }
-      consumer.accept(e);
-    }
-    return null;
+    });
   }
 
   @Override
   public Person updatePerson(Long id, Person person, Consumer<Throwable> consumer) {
-    Optional<Person> p = samePerson(id, person, consumer);
-    if (p.isPresent()) { //Überprüfung, ob eine genau gleiche Adresse noch einmal hinzugefügt werden möchte
-      return p.get();
-    }
+    return inTransaction(null, consumer, connection -> {
+      Optional<Person> p = samePerson(id, person, consumer);
+      if (p.isPresent()) { //Überprüfung, ob eine genau gleiche Adresse noch einmal hinzugefügt werden möchte
+        return p.get();
+      }
 
-    Address oldAddress = getPersonById(id, consumer).map(Person::getAddress).orElseThrow(() -> new IllegalArgumentException(DbConst.NOPERSONFOUND + id));
+      Address oldAddress = getPersonById(id, consumer).map(Person::getAddress).orElseThrow(() -> new IllegalArgumentException(DbConst.NOPERSONFOUND + id));
 
-    Optional<Address> newAddress;
-    boolean addressAlreadyExists;
-    boolean sameAddress = false; //sameAddress means that it's the same address as before at the person which gets updated -> the address don't has to be touched
+      Optional<Address> newAddress;
+      boolean addressAlreadyExists;
+      boolean sameAddress = false; //sameAddress means that it's the same address as before at the person which gets updated -> the address don't has to be touched
 
-    newAddress = addressAlreadyRegistered(person.getAddress(), consumer);
-    addressAlreadyExists = newAddress.isPresent();
-    if (!addressAlreadyExists) {
-      newAddress = Optional.ofNullable(person.getAddress());
-    } else if (sameAddress(oldAddress, newAddress.get())) {
-      sameAddress = true;
-    }
+      newAddress = addressAlreadyRegistered(person.getAddress(), consumer);
+      addressAlreadyExists = newAddress.isPresent();
+      if (!addressAlreadyExists) {
+        newAddress = Optional.ofNullable(person.getAddress());
+      } else if (sameAddress(oldAddress, newAddress.get())) {
+        sameAddress = true;
+      }
 
-    int personCount = getPersonCountByAddressId(oldAddress.getId_address(), consumer);
-    if (personCount > 1 && newAddress.isPresent() && !sameAddress) {
-      newAddress = Optional.ofNullable(saveAddress(newAddress.get(), consumer)); //wenn die address noch benutzt wird, wird eine neue erstellt
-    } else if (newAddress.isPresent() && !addressAlreadyExists) {
-      newAddress = editAddress(oldAddress.getId_address(), newAddress.get(), consumer); //wenn die address sonst nicht mehr benutzt wird, wird sie einfach bearbeitet
-    }
-    if (newAddress.isPresent()) {
-      person = new Person(id, newAddress.get(), person.getFirstName(), person.getLastName(), person.getBirthdate(), person.getGender());
-      editPerson(id, person, consumer);
-    }
+      int personCount = getPersonCountByAddressId(oldAddress.getId_address(), consumer);
+      if (personCount > 1 && newAddress.isPresent() && !sameAddress) {
+        newAddress = Optional.ofNullable(saveAddress(newAddress.get(), consumer)); //wenn die address noch benutzt wird, wird eine neue erstellt
+      } else if (newAddress.isPresent() && !addressAlreadyExists) {
+        newAddress = editAddress(oldAddress.getId_address(), newAddress.get(), consumer); //wenn die address sonst nicht mehr benutzt wird, wird sie einfach bearbeitet
+      }
+      Person updatedPerson = person;
+      if (newAddress.isPresent()) {
+        updatedPerson = new Person(id, newAddress.get(), person.getFirstName(), person.getLastName(), person.getBirthdate(), person.getGender());
+        editPerson(id, updatedPerson, consumer);
+      }
 
-    deleteUnsedAddress(consumer);
+      cleanupUnusedAddresses(consumer);
 
-    return person;
+      return updatedPerson;
+    });
   }
 
   @Override
@@ -214,39 +341,39 @@ public class SQLModelImpl implements Model {
 
   @Override
   public void delete(Long personId, Consumer<Throwable> consumer) {
-    Person personToDelete = getPersonById(personId, consumer).get();
-    Long addressId = personToDelete.getAddress().getId_address();
-    deleteById(personId, true, consumer);
-    if (canDelete(addressId, consumer)) {
-      deleteById(addressId, false, consumer);
-    }
+    inTransaction(null, consumer, connection -> {
+      Person personToDelete = getPersonById(personId, consumer).get();
+      Long addressId = personToDelete.getAddress().getId_address();
+      deleteById(personId, true, consumer);
+      if (canDelete(addressId, consumer)) {
+        deleteById(addressId, false, consumer);
+      }
+      return null;
+    });
   }
 
   @Override
   public List<Person> findAllPerson(Consumer<Throwable> consumer) {
-    return findAllPerson(SQLStatments.SELECT_ALL_PERSONS, consumer);
+    return findAllPerson(SQLStatments.SELECT_ALL_PERSONS_BY_ID, consumer);
   }
 
-  private Optional<Long> getPersonId(Person person, Consumer<Throwable> consumer) {
-    try {
-      try (PreparedStatement preparedStatement = connection.prepareStatement(SQLStatments.SELECT_ID_BY_PERSON)) {
-        preparedStatement.setString(1, person.getFirstName());
-        preparedStatement.setString(2, person.getLastName());
-        preparedStatement.setDate(3, Date.valueOf(person.getBirthdate()));
-        preparedStatement.setString(4, String.valueOf(person.getGender()));
+  @Override
+  public List<PersonSummary> findAllSummaries(Consumer<Throwable> consumer) {
+    return withConnection(new ArrayList<>(), consumer, connection -> {
+      List<PersonSummary> summaries = new ArrayList<>();
+      try (PreparedStatement preparedStatement = connection.prepareStatement(SQLStatments.SELECT_PERSON_SUMMARIES)) {
         ResultSet resultSet = preparedStatement.executeQuery();
-        if (resultSet.next()) {
-          return Optional.of(resultSet.getLong(DbConst.IDPERSON));
+        while (resultSet.next()) {
+          summaries.add(new PersonSummary(resultSet.getLong(DbConst.IDPERSON), resultSet.getString(DbConst.FIRSTNAME),
+                                          resultSet.getString(DbConst.LASTNAME)));
         }
       }
-    } catch (SQLException e) {
-      consumer.accept(e);
-    }
-    return Optional.empty();
+      return summaries;
+    });
   }
 
   private Optional<Long> getAddressId(Address address, Consumer<Throwable> consumer) {
-    try {
+    return withConnection(Optional.empty(), consumer, connection -> {
       try (PreparedStatement preparedStatement = connection.prepareStatement(SQLStatments.SELECT_ID_FROM_ADDRESS)) {
         preparedStatement.setString(1, address.getStreet());
         preparedStatement.setString(2, address.getStreetNumber());
@@ -259,10 +386,8 @@ public class SQLModelImpl implements Model {
           return Optional.of(resultSet.getLong(DbConst.IDADDRESS));
         }
       }
-    } catch (SQLException e) {
-      consumer.accept(e);
-    }
-    return Optional.empty();
+      return Optional.empty();
+    });
   }
 
   private Gender stringToGender(String stringGender) {
@@ -282,56 +407,166 @@ public class SQLModelImpl implements Model {
   }
 
   private List<Person> findAllPerson(String query, Consumer<Throwable> consumer) {
-    List<Person> persons = new LinkedList<>();
-    try (PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-      ResultSet resultSet = preparedStatement.executeQuery();
-      while (resultSet.next()) {
-        long id = resultSet.getLong(DbConst.IDPERSON);
-        Optional<Person> person = createPersonFromResultSet(resultSet, id, consumer);
-        person.ifPresent(persons::add);
+    return withConnection(new ArrayList<>(), consumer, connection -> {
+      List<Person> persons = new ArrayList<>();
+      Map<Long, Address> addresses = new HashMap<>(); //addresses shared by several persons are only materialized once
+      try (PreparedStatement preparedStatement = connection.prepareStatement(query)) {
+        ResultSet resultSet = preparedStatement.executeQuery();
+        while (resultSet.next()) {
+          long id = resultSet.getLong(DbConst.IDPERSON);
+          persons.add(createPersonFromResultSet(resultSet, id, addresses));
+        }
       }
+      return persons;
+    });
+  }
+
+  @Override
+  public Stream<Person> streamAll(Consumer<Throwable> consumer) {
+    Connection connection = null;
+    int isolation = Connection.TRANSACTION_REPEATABLE_READ;
+    try {
+      connection = getConnection();
+      isolation = connection.getTransactionIsolation();
+      connection.setReadOnly(true);
+      connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+      connection.setAutoCommit(false); //the whole stream reads from one snapshot
+      PreparedStatement preparedStatement = connection.prepareStatement(
+          SQLStatments.SELECT_ALL_PERSONS_BY_ID, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+      preparedStatement.setFetchSize(Integer.MIN_VALUE); //MySQL streams the rows instead of buffering the whole result
+      ResultSet resultSet = preparedStatement.executeQuery();
+
+      Connection streamConnection = connection;
+      int streamIsolation = isolation;
+      return StreamSupport.stream(new Spliterators.AbstractSpliterator<Person>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+        @Override
+        public boolean tryAdvance(Consumer<? super Person> action) {
+          try {
+            if (!resultSet.next()) {
+              return false;
+            }
+            action.accept(createPersonFromResultSet(resultSet, resultSet.getLong(DbConst.IDPERSON), new HashMap<>())); //no shared address map, the heap stays flat
+            return true;
+          } catch (SQLException e) {
+            consumer.accept(e);
+            return false;
+          }
+        }
+      }, false).onClose(() -> closeStream(streamConnection, preparedStatement, streamIsolation, consumer));
     } catch (SQLException e) {
+      if (connection != null) {
+        closeStream(connection, null, isolation, consumer);
+      }
       consumer.accept(e);
+      return Stream.empty();
     }
-    return persons;
   }
 
-  private Optional<Person> findPersonByID(Long id, Consumer<Throwable> consumer) {
-    try (PreparedStatement preparedStatement = connection.prepareStatement(SQLStatments.SELECT_PERSON_BY_ID)) {
-      preparedStatement.setLong(1, id);
-      ResultSet resultSet = preparedStatement.executeQuery();
-      if (resultSet.next()) {
-        return createPersonFromResultSet(resultSet, id, consumer);
+  private void closeStream(Connection connection, PreparedStatement preparedStatement, int isolation, Consumer<Throwable> consumer) {
+    try (connection) {
+      if (preparedStatement != null) {
+        preparedStatement.close();
       }
+      connection.rollback(); //read only, there is nothing to commit
+      connection.setAutoCommit(true);
+      connection.setTransactionIsolation(isolation);
+      connection.setReadOnly(false);
     } catch (SQLException e) {
       consumer.accept(e);
     }
-    return Optional.empty();
   }
 
-  private Optional<Address> findAddressById(Long id, Consumer<Throwable> consumer) {
-    try (PreparedStatement preparedStatement = connection.prepareStatement(SQLStatments.SELECT_ADDRESS_BY_ID)) {
+  @Override
+  public List<Person> findPersonsPage(Long afterId, int limit, SortKey sortKey, Consumer<Throwable> consumer) {
+    String query;
+    if (afterId == null) {
+      query = String.format(SQLStatments.SELECT_PERSONS_PAGE, sortKey.getColumn());
+    } else if (sortKey == SortKey.ID) {
+      query = SQLStatments.SELECT_PERSONS_PAGE_AFTER_ID;
+    } else {
+      query = String.format(SQLStatments.SELECT_PERSONS_PAGE_AFTER, sortKey.getColumn());
+    }
+
+    return withConnection(new ArrayList<>(), consumer, connection -> {
+      List<Person> persons = new ArrayList<>(limit);
+      Map<Long, Address> addresses = new HashMap<>();
+      Object anchor = null;
+      if (afterId != null && sortKey != SortKey.ID) {
+        Optional<Object> sortValue = sortValue(connection, afterId, sortKey);
+        if (sortValue.isEmpty()) {
+          return persons; //the anchor was deleted in the meantime
+        }
+        anchor = sortValue.get();
+      }
+      try (PreparedStatement preparedStatement = connection.prepareStatement(query)) {
+        int index = 1;
+        if (anchor != null) {
+          preparedStatement.setObject(index++, anchor);
+          preparedStatement.setObject(index++, anchor);
+        }
+        if (afterId != null) {
+          preparedStatement.setLong(index++, afterId);
+        }
+        preparedStatement.setInt(index, limit);
+        ResultSet resultSet = preparedStatement.executeQuery();
+        while (resultSet.next()) {
+          long id = resultSet.getLong(DbConst.IDPERSON);
+          persons.add(createPersonFromResultSet(resultSet, id, addresses));
+        }
+      }
+      return persons;
+    });
+  }
+
+  //sort value of the last person on the previous page, bound as a plain value so the page is a range scan of the sort index
+  private Optional<Object> sortValue(Connection connection, Long id, SortKey sortKey) throws SQLException {
+    try (PreparedStatement preparedStatement = connection.prepareStatement(String.format(SQLStatments.SELECT_PAGE_ANCHOR, sortKey.getColumn()))) {
       preparedStatement.setLong(1, id);
       ResultSet resultSet = preparedStatement.executeQuery();
-      if (resultSet.next()) {
-        return createAddressFromResultSet(resultSet, id);
-      }
-    } catch (SQLException e) {
-      consumer.accept(e);
+      return resultSet.next() ? Optional.of(resultSet.getObject(1)) : Optional.empty();
     }
-    return Optional.empty();
   }
 
-  private Optional<Person> createPersonFromResultSet(ResultSet resultSet, Long id, Consumer<Throwable> consumer) throws SQLException {
+  private Optional<Person> findPersonByID(Long id, Consumer<Throwable> consumer) {
+    return withConnection(Optional.empty(), consumer, connection -> {
+      try (PreparedStatement preparedStatement = connection.prepareStatement(SQLStatments.SELECT_PERSON_WITH_ADDRESS_BY_ID)) {
+        preparedStatement.setLong(1, id);
+        ResultSet resultSet = preparedStatement.executeQuery();
+        if (resultSet.next()) {
+          return Optional.of(createPersonFromResultSet(resultSet, id, new HashMap<>()));
+        }
+      }
+      return Optional.empty();
+    });
+  }
+
+  private Optional<Address> findAddressById(Long id, Consumer<Throwable> consumer) {
+    return withConnection(Optional.empty(), consumer, connection -> {
+      try (PreparedStatement preparedStatement = connection.prepareStatement(SQLStatments.SELECT_ADDRESS_BY_ID)) {
+        preparedStatement.setLong(1, id);
+        ResultSet resultSet = preparedStatement.executeQuery();
+        if (resultSet.next()) {
+          return createAddressFromResultSet(resultSet, id);
+        }
+      }
+      return Optional.empty();
+    });
+  }
+
+  private Person createPersonFromResultSet(ResultSet resultSet, Long id, Map<Long, Address> addresses) throws SQLException {
     long addressId = resultSet.getLong(DbConst.FKADDRESS);
     String firstName = resultSet.getString(DbConst.FIRSTNAME);
     String lastName = resultSet.getString(DbConst.LASTNAME);
     Date birthDate = resultSet.getDate(DbConst.BIRTHDATE);
     Gender gender = stringToGender(resultSet.getString(DbConst.GENDER));
 
-    Optional<Address> address = getAddressById(addressId, consumer);
+    Address address = addresses.get(addressId);
+    if (address == null) {
+      address = createAddressFromResultSet(resultSet, addressId).get();
+      addresses.put(addressId, address);
+    }
 
-    return address.map(value -> new Person(id, value, firstName, lastName, birthDate.toLocalDate(), gender));
+    return new Person(id, address, firstName, lastName, birthDate.toLocalDate(), gender);
   }
 
   private Optional<Address> createAddressFromResultSet(ResultSet resultSet, Long id) throws SQLException {
@@ -345,28 +580,26 @@ public class SQLModelImpl implements Model {
   }
 
   private List<Address> findAllAddress(Consumer<Throwable> consumer) {
-    List<Address> addresses = new LinkedList<>();
-
-    try (PreparedStatement preparedStatement = connection.prepareStatement(SQLStatments.SELECT_ALL_ADDRESS)) {
-      ResultSet resultSet = preparedStatement.executeQuery();
-      while (resultSet.next()) {
-        long id = resultSet.getLong(DbConst.IDADDRESS);
-        String street = resultSet.getString(DbConst.STREET);
-        String streetNumber = resultSet.getString(DbConst.STREETNUMBER);
-        int zipCode = Integer.parseInt(resultSet.getString(DbConst.POSTALCODE));
-        String city = resultSet.getString(DbConst.CITY);
-        String country = resultSet.getString(DbConst.COUNTRY);
-
-        addresses.add(new Address(id, street, streetNumber, zipCode, city, country));
+    return withConnection(new ArrayList<>(), consumer, connection -> {
+      List<Address> addresses = new ArrayList<>();
+      try (PreparedStatement preparedStatement = connection.prepareStatement(SQLStatments.SELECT_ALL_ADDRESS)) {
+        ResultSet resultSet = preparedStatement.executeQuery();
+        while (resultSet.next()) {
+          long id = resultSet.getLong(DbConst.IDADDRESS);
+          String street = resultSet.getString(DbConst.STREET);
+          String streetNumber = resultSet.getString(DbConst.STREETNUMBER);
+          int zipCode = Integer.parseInt(resultSet.getString(DbConst.POSTALCODE));
+          String city = resultSet.getString(DbConst.CITY);
+          String country = resultSet.getString(DbConst.COUNTRY);
+
+          addresses.add(new Address(id, street, streetNumber, zipCode, city, country));
+        }
       }
-    } catch (SQLException e) {
-      consumer.accept(e);
-    }
-    return addresses;
+      return addresses;
+    });
   }
 
   private Optional<Person> samePerson(Long id, Person person, Consumer<Throwable> consumer) {
-    findAllPerson(consumer);
     Optional<Person> oldPerson = getPersonById(id, consumer);
     if (oldPerson.isPresent() && (oldPerson.get().getFirstName().equals(person.getFirstName())
                                   && oldPerson.get().getLastName().equals(person.getLastName())
@@ -391,27 +624,29 @@ public class SQLModelImpl implements Model {
   }
 
   private void editPerson(Long id, Person person, Consumer<Throwable> consumer) {
-    try (PreparedStatement preparedStatement = connection.prepareStatement(SQLStatments.UPDATE_PERSON)) {
-      preparedStatement.setLong(1, person.getAddress().getId_address());
-      preparedStatement.setString(2, person.getFirstName());
-      preparedStatement.setString(3, person.getLastName());
-      preparedStatement.setDate(4, Date.valueOf(person.getBirthdate()));
-      preparedStatement.setString(5, person.getGender().toString());
-      preparedStatement.setLong(6, id);
-
-      preparedStatement.executeUpdate();
-    } catch (SQLException e) {
-      consumer.accept(e);
-    }
+    withConnection(null, consumer, connection -> {
+      try (PreparedStatement preparedStatement = connection.prepareStatement(SQLStatments.UPDATE_PERSON)) {
+        preparedStatement.setLong(1, person.getAddress().getId_address());
+        preparedStatement.setString(2, person.getFirstName());
+        preparedStatement.setString(3, person.getLastName());
+        preparedStatement.setDate(4, Date.valueOf(person.getBirthdate()));
+        preparedStatement.setString(5, person.getGender().toString());
+        preparedStatement.setLong(6, id);
+
+        preparedStatement.executeUpdate();
+      }
+      return null;
+    });
+    ChangeRegistry.getInstance().changed(Person.class, id);
   }
 
   private Optional<Address> editAddress(Long id, Address address, Consumer<Throwable> consumer) {
-    try {
-      Optional<Address> existingAddress = getAddressById(id, consumer);
-      if (existingAddress.isEmpty()) {
-        return Optional.empty();
-      }
+    Optional<Address> existingAddress = getAddressById(id, consumer);
+    if (existingAddress.isEmpty()) {
+      return Optional.empty();
+    }
 
+    withConnection(null, consumer, connection -> {
       try (PreparedStatement preparedStatement = connection.prepareStatement(SQLStatments.UPDATE_ADDRESS)) {
         preparedStatement.setString(1, address.getStreet());
         preparedStatement.setString(2, address.getStreetNumber());
@@ -422,9 +657,10 @@ public class SQLModelImpl implements Model {
 
         preparedStatement.executeUpdate();
       }
-    } catch (SQLException e) {
-      consumer.accept(e);
-    }
+      return null;
+    });
+    ChangeRegistry.getInstance().changed(Address.class, id);
+
     Optional<Long> tempAddress = getAddressId(address, consumer);
     if (tempAddress.isPresent()) {
       return getAddressById(tempAddress.get(), consumer);
@@ -433,68 +669,78 @@ public class SQLModelImpl implements Model {
     }
   }
 
+  //one lookup on the indexed natural key instead of loading every address
   private Optional<Address> addressAlreadyRegistered(Address address, Consumer<Throwable> consumer) {
-    return findAllAddresses(consumer).stream()
-        .filter(ad -> ad.getStreet().equals(address.getStreet())
-                      && ad.getStreetNumber().equals(address.getStreetNumber())
-                      && ad.getZipCode() == address.getZipCode()
-                      && ad.getCity().equals(address.getCity())
-                      && ad.getCountry().equals(address.getCountry()))
-        .findFirst();
+    return getAddressId(address, consumer).flatMap(id -> getAddressById(id, consumer));
+  }
+
+  private synchronized void cleanupUnusedAddresses(Consumer<Throwable> consumer) {
+    if (addressSweeper == null) {
+      deleteUnsedAddress(consumer);
+    } else {
+      sweepConsumer = consumer;
+      addressSweeper.request();
+    }
   }
 
   private void deleteUnsedAddress(Consumer<Throwable> consumer) {
-    findAllAddresses(consumer).stream()
-        .filter(address -> getPersonCountByAddressId(address.getId_address(), consumer) == 0)
-        .forEach(address -> deleteById(address.getId_address(), false, consumer));
+    inTransaction(null, consumer, connection -> {
+      try (PreparedStatement preparedStatement = connection.prepareStatement(SQLStatments.DELETE_UNUSED_ADDRESSES)) {
+        preparedStatement.executeUpdate();
+      }
+      return null;
+    });
+    ChangeRegistry.getInstance().changed(Address.class, null);
   }
 
   private int getPersonCountByAddressId(Long addressId, Consumer<Throwable> consumer) {
-    try (PreparedStatement preparedStatement = connection.prepareStatement(SQLStatments.USAGECOUNT_FROM_PERSON)) {
-      preparedStatement.setLong(1, addressId);
-      ResultSet resultSet = preparedStatement.executeQuery();
-      if (resultSet.next()) {
-        return resultSet.getInt(DbConst.COUNT);
+    return withConnection(0, consumer, connection -> {
+      try (PreparedStatement preparedStatement = connection.prepareStatement(SQLStatments.USAGECOUNT_FROM_PERSON)) {
+        preparedStatement.setLong(1, addressId);
+        ResultSet resultSet = preparedStatement.executeQuery();
+        if (resultSet.next()) {
+          return resultSet.getInt(DbConst.COUNT);
+        }
       }
-    } catch (SQLException e) {
-      consumer.accept(e);
-    }
-    return 0;
+      return 0;
+    });
   }
 
   private void deleteById(Long id, boolean isPerson, Consumer<Throwable> consumer) {
-    if (isValidId(id, consumer)) {
-      if (isPerson) {
-        deleteSqlCommand(id, SQLStatments.DELETE_PERSON_BY_ID, consumer);
-      } else {
-        deleteSqlCommand(id, SQLStatments.DELETE_ADDRESS_BY_ID, consumer);
+    inTransaction(null, consumer, connection -> {
+      if (isValidId(id, isPerson, consumer)) {
+        if (isPerson) {
+          deleteSqlCommand(id, SQLStatments.DELETE_PERSON_BY_ID, consumer);
+        } else {
+          deleteSqlCommand(id, SQLStatments.DELETE_ADDRESS_BY_ID, consumer);
+        }
       }
-    }
+      return null;
+    });
+    ChangeRegistry.getInstance().changed(isPerson ? Person.class : Address.class, id);
   }
 
   public void deleteAll(Consumer<Throwable> consumer) {
-    try (PreparedStatement preparedStatement1 = connection.prepareStatement(SQLStatments.DELETE_ALL_PERSONS); PreparedStatement preparedStatement2 = connection.prepareStatement(SQLStatments.DELETE_ALL_ADDRESSES)) {
-      preparedStatement1.executeUpdate();
-      preparedStatement2.executeUpdate();
-    } catch (SQLException e) {
-      consumer.accept(e);
-    }
+    inTransaction(null, consumer, connection -> {
+      try (PreparedStatement preparedStatement1 = connection.prepareStatement(SQLStatments.DELETE_ALL_PERSONS); PreparedStatement preparedStatement2 = connection.prepareStatement(SQLStatments.DELETE_ALL_ADDRESSES)) {
+        preparedStatement1.executeUpdate();
+        preparedStatement2.executeUpdate();
+      }
+      return null;
+    });
+    ChangeRegistry.getInstance().changed(Person.class, null);
+    ChangeRegistry.getInstance().changed(Address.class, null);
   }
 
-  private boolean isValidId(Long id, Consumer<Throwable> consumer) {
-    List<Person> persons = findAllPerson(consumer);
-    for (Person person : persons) {
-      if (person.getId_person().equals(id)) {
-        return true;
-      }
-    }
-    List<Address> addresses = findAllAddresses(consumer);
-    for (Address address : addresses) {
-      if (address.getId_address().equals(id)) {
-        return true;
+  private boolean isValidId(Long id, boolean isPerson, Consumer<Throwable> consumer) {
+    return withConnection(false, consumer, connection -> {
+      try (PreparedStatement preparedStatement = connection.prepareStatement(
+          isPerson ? SQLStatments.EXISTS_PERSON_BY_ID : SQLStatments.EXISTS_ADDRESS_BY_ID)) {
+        preparedStatement.setLong(1, id);
+        ResultSet resultSet = preparedStatement.executeQuery();
+        return resultSet.next() && resultSet.getBoolean(1);
       }
-    }
-    return false;
+    });
   }
 
   private boolean canDelete(Long addressId, Consumer<Throwable> consumer) {
@@ -503,29 +749,66 @@ public class SQLModelImpl implements Model {
   }
 
   private void deleteSqlCommand(Long id, String sqlCommand, Consumer<Throwable> consumer) {
-    try {
+    withConnection(null, consumer, connection -> {
       try (PreparedStatement preparedStatement = connection.prepareStatement(sqlCommand)) {
         preparedStatement.setLong(1, id);
         preparedStatement.executeUpdate();
       }
-    } catch (SQLException e) {
-      consumer.accept(e);
-    }
+      return null;
+    });
   }
 
-  private Connection getConnection() {
-    if (connection == null) {
+  private <T> T withConnection(T fallback, Consumer<Throwable> consumer, SqlOperation<T> operation) {
+    return execute(false, fallback, consumer, operation);
+  }
+
+  private <T> T inTransaction(T fallback, Consumer<Throwable> consumer, SqlOperation<T> operation) {
+    return execute(true, fallback, consumer, operation);
+  }
+
+  private <T> T execute(boolean transactional, T fallback, Consumer<Throwable> consumer, SqlOperation<T> operation) {
+    Connection boundConnection = currentConnection.get();
+    if (boundConnection != null) { //nested call, joins the connection (and transaction) of the running operation
       try {
-        Class.forName(DbConst.DRIVER);
-        connection = DriverManager.getConnection(DbConst.URL, DbConst.USER, DbConst.PASS);
-      } catch (SQLException ex) {
-        System.out.println(DbConst.SQLEXCEPTION + ex.getMessage());
-        System.out.println(DbConst.SQLSTATE + ex.getSQLState());
-        System.out.println(DbConst.VENDORERRORCODE + ex.getErrorCode());
-      } catch (ClassNotFoundException ex2) {
-        throw new RuntimeException(ex2);
+        return operation.execute(boundConnection);
+      } catch (SQLException e) {
+        rollbackOnly.set(true);
+        consumer.accept(e);
+        return fallback;
+      }
+    }
+
+    try (Connection connection = getConnection()) { //closing hands the connection back to the pool, which rolls back uncommitted work
+      currentConnection.set(connection);
+      if (transactional) {
+        connection.setAutoCommit(false);
+      }
+      T result = operation.execute(connection);
+      if (rollbackOnly.get()) { //the failure was already reported to the consumer
+        if (transactional) {
+          connection.rollback();
+        }
+        return fallback;
+      }
+      if (transactional) {
+        commitTransaction(connection);
       }
+      return result;
+    } catch (SQLException e) {
+      consumer.accept(e);
+      return fallback;
+    } finally {
+      currentConnection.remove();
+      rollbackOnly.remove();
     }
-    return connection;
   }
-}
\ No newline at end of file
+
+  //the transaction is always committed here, commit() can be overridden and must not decide whether the work is kept
+  private void commitTransaction(Connection connection) throws SQLException {
+    connection.commit();
+  }
+
+  private Connection getConnection() throws SQLException {
+    return connectionPool.borrow();
+  }
+}
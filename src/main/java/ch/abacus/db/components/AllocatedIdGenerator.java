@@ -0,0 +1,47 @@
+/*
+ * AllocatedIdGenerator.java
+ *
+ * Creator:
+ * 18.10.2026 15:52 agent
+ *
+ * Maintainer:
+ * 18.10.2026 15:52 agent
+ *
+ * Last Modification:
+ * $Id:$
+ *
+ * Copyright (c) 2024 ABACUS Research AG, All Rights Reserved
+ */
+package ch.abacus.db.components;
+
+import ch.abacus.common.DbConst;
+import org.hibernate.HibernateException;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.Configurable;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.io.Serializable;
+import java.sql.SQLException;
+import java.util.Properties;
+
+//ids are known before the INSERT, so Hibernate can batch the inserts of a flush
+public class AllocatedIdGenerator implements IdentifierGenerator, Configurable {
+
+  private String name;
+
+  @Override
+  public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) {
+    name = params.getProperty(DbConst.IDALLOCATORNAME);
+  }
+
+  @Override
+  public Serializable generate(SharedSessionContractImplementor session, Object object) {
+    try {
+      return IdAllocator.getInstance().next(name);
+    } catch (SQLException e) {
+      throw new HibernateException(e);
+    }
+  }
+}
@@ -0,0 +1,46 @@
+/*
+ * ChangeRegistry.java
+ *
+ * Creator:
+ * 18.10.2026 16:20 agent
+ *
+ * Maintainer:
+ * 18.10.2026 16:20 agent
+ *
+ * Last Modification:
+ * $Id:$
+ *
+ * Copyright (c) 2024 ABACUS Research AG, All Rights Reserved
+ */
+package ch.abacus.db.components;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+
+//writes that bypass JPA are announced here, so caches of the other backend can drop the changed rows
+public class ChangeRegistry {
+
+  private static ChangeRegistry changeRegistry = null;
+  private final List<BiConsumer<Class<?>, Long>> listeners = new CopyOnWriteArrayList<>();
+
+  public static synchronized ChangeRegistry getInstance() {
+    if (changeRegistry == null) {
+      changeRegistry = new ChangeRegistry();
+    }
+    return changeRegistry;
+  }
+
+  public void addListener(BiConsumer<Class<?>, Long> listener) {
+    listeners.add(listener);
+  }
+
+  public void removeListener(BiConsumer<Class<?>, Long> listener) {
+    listeners.remove(listener);
+  }
+
+  //id null -> every row of the entity may have changed
+  public void changed(Class<?> entity, Long id) {
+    listeners.forEach(listener -> listener.accept(entity, id));
+  }
+}
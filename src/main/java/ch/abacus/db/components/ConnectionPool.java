@@ -0,0 +1,565 @@
+/*
+ * ConnectionPool.java
+ *
+ * Creator:
+ * 18.10.2026 08:12 agent
+ *
+ * Maintainer:
+ * 18.10.2026 08:12 agent
+ *
+ * Last Modification:
+ * $Id:$
+ *
+ * Copyright (c) 2024 ABACUS Research AG, All Rights Reserved
+ */
+package ch.abacus.db.components;
+
+import ch.abacus.common.DbConst;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class ConnectionPool {
+
+  private static ConnectionPool connectionPool = null;
+
+  private final String url;
+  private final String user;
+  private final String password;
+  private final int minSize;
+  private final int maxSize;
+
+  private final Deque<PooledConnection> idleConnections = new ArrayDeque<>();
+  private final List<PooledConnection> leasedConnections = new ArrayList<>();
+  private final ScheduledExecutorService housekeeper;
+  private int totalConnections;
+  private boolean shutdown;
+  private volatile boolean leakTraces = DbConst.POOLLEAKTRACES;
+  private volatile long maxWaitMillis = DbConst.POOLMAXWAITMILLIS;
+  private volatile long idleTimeoutMillis = DbConst.POOLIDLETIMEOUTMILLIS;
+  private volatile long leakThresholdMillis = DbConst.POOLLEAKTHRESHOLDMILLIS;
+  private volatile long validationWindowMillis = DbConst.POOLVALIDATIONWINDOWMILLIS;
+
+  private long borrowCount;
+  private long waitCount;
+  private long totalWaitNanos;
+  private long maxWaitNanos;
+  private long timeoutCount;
+  private long validationFailureCount;
+  private long leakCount;
+  private long statementCacheHits;
+  private long statementCacheMisses;
+  private long statementCacheEvictions;
+
+  public static synchronized ConnectionPool getInstance() {
+    if (connectionPool == null) {
+      connectionPool = new ConnectionPool(DbConst.URL, DbConst.USER, DbConst.PASS, DbConst.POOLMINSIZE, DbConst.POOLMAXSIZE);
+    }
+    return connectionPool;
+  }
+
+  public static synchronized void setInstance(ConnectionPool connectionPool) {
+    ConnectionPool.connectionPool = connectionPool;
+  }
+
+  public ConnectionPool(String url, String user, String password, int minSize, int maxSize) {
+    if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+      throw new IllegalArgumentException(DbConst.POOLINVALIDSIZE + minSize + DbConst.COMMASPACE + maxSize);
+    }
+    try {
+      Class.forName(DbConst.DRIVER);
+    } catch (ClassNotFoundException e) {
+      throw new RuntimeException(e);
+    }
+    this.url = url;
+    this.user = user;
+    this.password = password;
+    this.minSize = minSize;
+    this.maxSize = maxSize;
+
+    housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, DbConst.POOLHOUSEKEEPER);
+      thread.setDaemon(true);
+      return thread;
+    });
+    housekeeper.scheduleWithFixedDelay(this::houseKeeping, DbConst.POOLHOUSEKEEPINGMILLIS,
+                                       DbConst.POOLHOUSEKEEPINGMILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  public Connection borrow() throws SQLException {
+    long start = System.nanoTime();
+    long maxWaitMillis = this.maxWaitMillis;
+    long deadline = start + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+    boolean waited = false;
+
+    while (true) {
+      PooledConnection candidate = null;
+      boolean create = false;
+
+      synchronized (this) {
+        while (!shutdown && idleConnections.isEmpty() && totalConnections >= maxSize) {
+          long remaining = deadline - System.nanoTime();
+          if (remaining <= 0) {
+            timeoutCount++;
+            throw new SQLTransientConnectionException(DbConst.POOLTIMEOUT + maxWaitMillis + DbConst.MILLISECONDS);
+          }
+          waited = true;
+          try {
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException(DbConst.POOLINTERRUPTED, e);
+          }
+        }
+        if (shutdown) {
+          throw new SQLException(DbConst.POOLSHUTDOWN);
+        }
+        if (!idleConnections.isEmpty()) {
+          candidate = idleConnections.pollFirst();
+        } else {
+          totalConnections++;
+          create = true;
+        }
+      }
+
+      if (create) {
+        try {
+          candidate = new PooledConnection(DriverManager.getConnection(url, user, password));
+        } catch (SQLException e) {
+          discarded();
+          throw e;
+        }
+      } else if (!isValid(candidate)) {
+        candidate.closePhysical();
+        discarded();
+        synchronized (this) {
+          validationFailureCount++;
+        }
+        continue;
+      }
+
+      long waitNanos = System.nanoTime() - start;
+      synchronized (this) {
+        candidate.lease(leakTraces);
+        leasedConnections.add(candidate);
+        borrowCount++;
+        totalWaitNanos += waitNanos;
+        maxWaitNanos = Math.max(maxWaitNanos, waitNanos);
+        if (waited) {
+          waitCount++;
+        }
+      }
+      return candidate.getProxy();
+    }
+  }
+
+  //remembers where every connection was borrowed, a stack trace per borrow is too expensive to always pay for
+  public void setLeakTraces(boolean leakTraces) {
+    this.leakTraces = leakTraces;
+  }
+
+  public void setMaxWaitMillis(long maxWaitMillis) {
+    this.maxWaitMillis = maxWaitMillis;
+  }
+
+  public void setIdleTimeoutMillis(long idleTimeoutMillis) {
+    this.idleTimeoutMillis = idleTimeoutMillis;
+  }
+
+  public void setLeakThresholdMillis(long leakThresholdMillis) {
+    this.leakThresholdMillis = leakThresholdMillis;
+  }
+
+  public void setValidationWindowMillis(long validationWindowMillis) {
+    this.validationWindowMillis = validationWindowMillis;
+  }
+
+  public synchronized void shutdown() {
+    shutdown = true;
+    housekeeper.shutdownNow();
+    for (PooledConnection idle : idleConnections) {
+      idle.closePhysical();
+    }
+    totalConnections -= idleConnections.size();
+    idleConnections.clear();
+    notifyAll();
+  }
+
+  public synchronized int getActiveCount() {
+    return leasedConnections.size();
+  }
+
+  public synchronized int getIdleCount() {
+    return idleConnections.size();
+  }
+
+  public synchronized int getTotalCount() {
+    return totalConnections;
+  }
+
+  public synchronized long getBorrowCount() {
+    return borrowCount;
+  }
+
+  public synchronized long getWaitCount() {
+    return waitCount;
+  }
+
+  public synchronized double getAverageWaitMillis() {
+    return borrowCount == 0 ? 0 : totalWaitNanos / (double) borrowCount / 1_000_000;
+  }
+
+  public synchronized double getMaxWaitMillis() {
+    return maxWaitNanos / 1_000_000d;
+  }
+
+  public synchronized long getTimeoutCount() {
+    return timeoutCount;
+  }
+
+  public synchronized long getValidationFailureCount() {
+    return validationFailureCount;
+  }
+
+  public synchronized long getLeakCount() {
+    return leakCount;
+  }
+
+  public synchronized long getStatementCacheHits() {
+    return statementCacheHits;
+  }
+
+  public synchronized long getStatementCacheMisses() {
+    return statementCacheMisses;
+  }
+
+  public synchronized long getStatementCacheEvictions() {
+    return statementCacheEvictions;
+  }
+
+  private synchronized void statementCacheHit() {
+    statementCacheHits++;
+  }
+
+  private synchronized void statementCacheMiss() {
+    statementCacheMisses++;
+  }
+
+  private synchronized void statementCacheEviction() {
+    statementCacheEvictions++;
+  }
+
+  private boolean isValid(PooledConnection pooledConnection) {
+    if (System.currentTimeMillis() - pooledConnection.lastUsed < validationWindowMillis) {
+      return true; //recently returned without error, the ping can be skipped
+    }
+    try {
+      return pooledConnection.physical.isValid(DbConst.POOLVALIDATIONTIMEOUTSECONDS);
+    } catch (SQLException e) {
+      return false;
+    }
+  }
+
+  private synchronized void discarded() {
+    totalConnections--;
+    notifyAll();
+  }
+
+  private void release(PooledConnection pooledConnection) {
+    boolean reusable = pooledConnection.reset();
+    synchronized (this) {
+      leasedConnections.remove(pooledConnection);
+      reusable = reusable && !shutdown;
+      if (reusable) {
+        idleConnections.offerFirst(pooledConnection);
+      } else {
+        totalConnections--;
+      }
+      notifyAll();
+    }
+    if (!reusable) {
+      pooledConnection.closePhysical();
+    }
+  }
+
+  //run by the housekeeper thread every POOLHOUSEKEEPINGMILLIS
+  public void houseKeeping() {
+    List<PooledConnection> evicted = new ArrayList<>();
+    long now = System.currentTimeMillis();
+
+    synchronized (this) {
+      Iterator<PooledConnection> iterator = idleConnections.descendingIterator(); //oldest idle connections first
+      while (iterator.hasNext() && totalConnections > minSize) {
+        PooledConnection idle = iterator.next();
+        if (now - idle.lastUsed > idleTimeoutMillis) {
+          iterator.remove();
+          totalConnections--;
+          evicted.add(idle);
+        }
+      }
+      for (PooledConnection leased : leasedConnections) {
+        if (!leased.leakReported && now - leased.borrowedAt > leakThresholdMillis) {
+          leased.leakReported = true;
+          leakCount++;
+          System.out.println(DbConst.POOLLEAK + (now - leased.borrowedAt) + DbConst.MILLISECONDS);
+          if (leased.borrowedBy != null) {
+            for (StackTraceElement element : leased.borrowedBy.getStackTrace()) {
+              System.out.println(DbConst.STACKTRACEINDENT + element);
+            }
+          }
+        }
+      }
+    }
+
+    for (PooledConnection idle : evicted) {
+      idle.closePhysical();
+    }
+  }
+
+  //close() on the proxy hands the physical connection back to the pool instead of closing the socket
+  private final class PooledConnection implements InvocationHandler {
+
+    private final Connection physical;
+    private final Connection proxy;
+    private long lastUsed = System.currentTimeMillis();
+    private long borrowedAt;
+    private Throwable borrowedBy; //null -> leak traces are off
+    private boolean leakReported;
+    private boolean returned = true;
+
+    //access order, the least recently used statement is closed once the cache is full
+    private final Map<String, CachedStatement> statementCache = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+        if (size() > DbConst.STATEMENTCACHESIZE) {
+          eldest.getValue().discard();
+          statementCacheEviction();
+          return true;
+        }
+        return false;
+      }
+    };
+
+    private PooledConnection(Connection physical) {
+      this.physical = physical;
+      this.proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, this);
+    }
+
+    private Connection getProxy() {
+      return proxy;
+    }
+
+    private void lease(boolean trace) {
+      borrowedAt = System.currentTimeMillis();
+      borrowedBy = trace ? new Throwable() : null;
+      leakReported = false;
+      returned = false;
+    }
+
+    private boolean reset() {
+      lastUsed = System.currentTimeMillis();
+      try {
+        if (!physical.getAutoCommit()) {
+          physical.rollback();
+          physical.setAutoCommit(true);
+        }
+        physical.clearWarnings();
+        return !physical.isClosed();
+      } catch (SQLException e) {
+        return false;
+      }
+    }
+
+    private void closePhysical() {
+      statementCache.clear(); //closing the physical connection closes its statements as well
+      try {
+        physical.close();
+      } catch (SQLException e) {
+        System.out.println(DbConst.SQLEXCEPTION + e.getMessage());
+      }
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      switch (method.getName()) {
+        case DbConst.EQUALS:
+          return proxy == args[0];
+        case DbConst.HASHCODE:
+          return System.identityHashCode(proxy);
+        case DbConst.TOSTRING:
+          return DbConst.POOLEDCONNECTION + physical;
+        case DbConst.CLOSE:
+          if (!returned) {
+            returned = true;
+            release(this);
+          }
+          return null;
+        case DbConst.ISCLOSED:
+          return returned || physical.isClosed();
+        case DbConst.UNWRAP:
+          return physical.unwrap((Class<?>) args[0]);
+        case DbConst.ISWRAPPERFOR:
+          return physical.isWrapperFor((Class<?>) args[0]);
+        case DbConst.PREPARESTATEMENT:
+          if (returned) {
+            throw new SQLException(DbConst.POOLCONNECTIONRETURNED);
+          }
+          if (isCacheable(method)) {
+            return prepareCached(args);
+          }
+          //fall through, the other variants are prepared uncached
+        default:
+          if (returned) {
+            throw new SQLException(DbConst.POOLCONNECTIONRETURNED);
+          }
+          try {
+            return method.invoke(physical, args);
+          } catch (InvocationTargetException e) {
+            throw e.getCause();
+          }
+      }
+    }
+
+    //only prepareStatement(String) and prepareStatement(String, int autoGeneratedKeys) are cached
+    private boolean isCacheable(Method method) {
+      Class<?>[] parameterTypes = method.getParameterTypes();
+      return parameterTypes.length == 1 || (parameterTypes.length == 2 && parameterTypes[1] == int.class);
+    }
+
+    private PreparedStatement prepareCached(Object[] args) throws SQLException {
+      String sql = (String) args[0];
+      String key = args.length == 1 ? sql : sql + DbConst.STATEMENTKEYSEPARATOR + args[1];
+      CachedStatement cached = statementCache.get(key);
+      if (cached != null && !cached.inUse) {
+        statementCacheHit();
+        return cached.checkOut();
+      }
+      statementCacheMiss();
+      PreparedStatement physicalStatement = args.length == 1 ? physical.prepareStatement(sql) : physical.prepareStatement(sql, (Integer) args[1]);
+      CachedStatement created = new CachedStatement(key, physicalStatement);
+      if (cached == null) {
+        statementCache.put(key, created);
+      } else {
+        created.uncached = true; //the same SQL is still open further up the call stack
+      }
+      return created.checkOut();
+    }
+
+    //close() on the proxy resets the statement and keeps it prepared for the next caller
+    private final class CachedStatement implements InvocationHandler {
+
+      private final String key;
+      private final PreparedStatement physicalStatement;
+      private final PreparedStatement statementProxy;
+      private final List<ResultSet> openResultSets = new ArrayList<>();
+      private boolean inUse;
+      private boolean uncached;
+
+      private CachedStatement(String key, PreparedStatement physicalStatement) {
+        this.key = key;
+        this.physicalStatement = physicalStatement;
+        this.statementProxy = (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, this);
+      }
+
+      private PreparedStatement checkOut() {
+        inUse = true;
+        return statementProxy;
+      }
+
+      private void checkIn() throws SQLException {
+        inUse = false;
+        if (uncached) {
+          physicalStatement.close();
+          return;
+        }
+        try {
+          for (ResultSet resultSet : openResultSets) {
+            resultSet.close();
+          }
+          physicalStatement.clearParameters();
+          physicalStatement.clearBatch();
+          physicalStatement.clearWarnings();
+        } catch (SQLException e) {
+          evict();
+          throw e;
+        } finally {
+          openResultSets.clear();
+        }
+      }
+
+      //a statement that failed is never handed out again
+      private void evict() {
+        if (!uncached && statementCache.remove(key, this)) {
+          statementCacheEviction();
+        }
+        discard();
+      }
+
+      private void discard() {
+        uncached = true;
+        if (!inUse) {
+          try {
+            physicalStatement.close();
+          } catch (SQLException e) {
+            System.out.println(DbConst.SQLEXCEPTION + e.getMessage());
+          }
+        }
+      }
+
+      @Override
+      public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+          case DbConst.EQUALS:
+            return proxy == args[0];
+          case DbConst.HASHCODE:
+            return System.identityHashCode(proxy);
+          case DbConst.TOSTRING:
+            return DbConst.CACHEDSTATEMENT + physicalStatement;
+          case DbConst.CLOSE:
+            if (inUse) {
+              checkIn();
+            }
+            return null;
+          case DbConst.ISCLOSED:
+            return !inUse || physicalStatement.isClosed();
+          case DbConst.GETCONNECTION:
+            return PooledConnection.this.proxy;
+          default:
+            if (!inUse) {
+              throw new SQLException(DbConst.POOLCONNECTIONRETURNED);
+            }
+            try {
+              Object result = method.invoke(physicalStatement, args);
+              if (result instanceof ResultSet) {
+                openResultSets.add((ResultSet) result);
+              }
+              return result;
+            } catch (InvocationTargetException e) {
+              if (e.getCause() instanceof SQLException) {
+                evict();
+              }
+              throw e.getCause();
+            }
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * DeferredSweeper.java
+ *
+ * Creator:
+ * 18.10.2026 11:05 agent
+ *
+ * Maintainer:
+ * 18.10.2026 11:05 agent
+ *
+ * Last Modification:
+ * $Id:$
+ *
+ * Copyright (c) 2024 ABACUS Research AG, All Rights Reserved
+ */
+package ch.abacus.db.components;
+
+import ch.abacus.common.DbConst;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class DeferredSweeper {
+
+  private final ScheduledExecutorService executor;
+  private final Runnable sweep;
+  private final long delayMillis;
+  private final AtomicBoolean pending = new AtomicBoolean();
+
+  public DeferredSweeper(String name, long delayMillis, Runnable sweep) {
+    this.sweep = sweep;
+    this.delayMillis = delayMillis;
+    executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, name);
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  //all requests until the sweep starts are coalesced into one run
+  public void request() {
+    if (pending.compareAndSet(false, true)) {
+      executor.schedule(this::run, delayMillis, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  private void run() {
+    pending.set(false);
+    try {
+      sweep.run();
+    } catch (RuntimeException e) { //the executor would drop it without a trace
+      System.out.println(DbConst.SWEEPFAILED + e.getMessage());
+    }
+  }
+}
@@ -18,69 +18,164 @@ import ch.abacus.common.DbConst;
 import ch.abacus.common.JPAStatments;
 import ch.abacus.db.entity.Address;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import javax.persistence.Cache;
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.EntityTransaction;
 import javax.persistence.Persistence;
 import javax.persistence.Query;
 
+import java.util.function.Supplier;
+
 public class EntitymanagerUtil {
 
   private static EntitymanagerUtil entitymanagerUtil = null;
-  private final EntityManager entityManager;
+  private static EntityManagerFactory entityManagerFactory = null;
+  //an EntityManager is not thread safe, every thread works in its own one
+  private final ThreadLocal<EntityManager> entityManager = new ThreadLocal<>();
+  private final ThreadLocal<Integer> depth = ThreadLocal.withInitial(() -> 0);
 
-  public static EntitymanagerUtil getInstance() {
+  public static synchronized EntitymanagerUtil getInstance() {
     if (entitymanagerUtil == null) {
       entitymanagerUtil = new EntitymanagerUtil();
     }
     return entitymanagerUtil;
   }
 
-  public static void setInstance(EntitymanagerUtil entitymanagerUtil) {
+  public static synchronized void setInstance(EntitymanagerUtil entitymanagerUtil) {
     EntitymanagerUtil.entitymanagerUtil = entitymanagerUtil;
   }
 
   public EntitymanagerUtil() {
-    EntityManagerFactory entityManagerFactory = Persistence.createEntityManagerFactory(DbConst.TITLE);
-      entityManager = entityManagerFactory.createEntityManager();
+    SchemaMigrator.getInstance().migrate(e -> System.out.println(DbConst.SQLEXCEPTION + e.getMessage()));
+    getEntityManagerFactory();
+  }
+
+  private static synchronized EntityManagerFactory getEntityManagerFactory() {
+    if (entityManagerFactory == null) {
+      entityManagerFactory = Persistence.createEntityManagerFactory(DbConst.TITLE);
+      ChangeRegistry.getInstance().addListener(EntitymanagerUtil::evictChanged); //rows written by SQLModelImpl
+    }
+    return entityManagerFactory;
   }
 
+  private static void evictChanged(Class<?> entity, Long id) {
+    Cache cache = getEntityManagerFactory().getCache();
+    if (id == null) {
+      cache.evict(entity);
+    } else {
+      cache.evict(entity, id);
+    }
+  }
+
+  public EntityManager createEntityManager() {
+    return getEntityManagerFactory().createEntityManager();
+  }
+
+  //the EntityManager of the current unit of work
   public EntityManager getEm() {
-    return entityManager;
+    EntityManager em = entityManager.get();
+    if (em == null || !em.isOpen()) {
+      em = createEntityManager();
+      entityManager.set(em);
+    }
+    return em;
+  }
+
+  //nested calls share the EntityManager, the outermost one closes it so the persistence context never outlives the operation
+  public <T> T unitOfWork(Supplier<T> work) {
+    depth.set(depth.get() + 1);
+    try {
+      return work.get();
+    } finally {
+      depth.set(depth.get() - 1);
+      if (depth.get() == 0) {
+        close();
+      }
+    }
+  }
+
+  public void unitOfWork(Runnable work) {
+    unitOfWork(() -> {
+      work.run();
+      return null;
+    });
   }
 
+  private void close() {
+    depth.remove();
+    EntityManager em = entityManager.get();
+    //a transaction spanning several units of work keeps its EntityManager
+    if (em == null || em.getTransaction().isActive()) {
+      return;
+    }
+    entityManager.remove();
+    if (em.isOpen()) {
+      em.close();
+    }
+  }
+
+  //joins the running transaction, a nested call must not roll back the work of its caller
   public EntityTransaction begin() {
     EntityTransaction transaction = getEm().getTransaction();
-    if (transaction.isActive()) {
-      transaction.rollback();
+    if (!transaction.isActive()) {
+      transaction.begin();
     }
-    transaction.begin();
     return transaction;
   }
 
   public void commitTransaction() {
     EntityTransaction transaction = getEm().getTransaction();
-    if (!transaction.getRollbackOnly()) {
+    if (transaction.isActive() && !transaction.getRollbackOnly()) {
       transaction.commit();
     }
   }
 
-  public void clearDatabase() {
+  public void evict(Class<?> entity, Long id) {
+    evictChanged(entity, id);
+  }
+
+  public void evictAll() {
+    getEntityManagerFactory().getCache().evictAll();
+  }
+
+  public long getCacheHits() {
+    return getStatistics().getSecondLevelCacheHitCount();
+  }
+
+  public long getCacheMisses() {
+    return getStatistics().getSecondLevelCacheMissCount();
+  }
+
+  public double getCacheHitRatio() {
+    long lookups = getCacheHits() + getCacheMisses();
+    return lookups == 0 ? 0 : (double) getCacheHits() / lookups;
+  }
+
+  private Statistics getStatistics() {
+    return getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+  }
 
-    EntityManager em = getEm();
-    Query query;
+  public void clearDatabase() {
+    unitOfWork(() -> {
+      EntityManager em = getEm();
+      Query query;
 
-    begin();
+      begin();
 
-    query = em.createQuery(JPAStatments.DELETE_ALL_FROM_PERSON);
-    query.executeUpdate();
+      query = em.createQuery(JPAStatments.DELETE_ALL_FROM_PERSON);
+      query.executeUpdate();
 
-    query = em.createQuery(JPAStatments.DELETE_ALL_FROM_ADDRESS);
-    query.executeUpdate();
+      query = em.createQuery(JPAStatments.DELETE_ALL_FROM_ADDRESS);
+      query.executeUpdate();
 
-    em.createQuery(JPAStatments.SELECT_ADDRESS, Address.class).getResultList();
+      em.createQuery(JPAStatments.SELECT_ADDRESS, Address.class).getResultList();
 
-    em.flush();
-    commitTransaction();
+      em.flush();
+      commitTransaction();
+    });
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,112 @@
+/*
+ * IdAllocator.java
+ *
+ * Creator:
+ * 18.10.2026 15:40 agent
+ *
+ * Maintainer:
+ * 18.10.2026 15:40 agent
+ *
+ * Last Modification:
+ * $Id:$
+ *
+ * Copyright (c) 2024 ABACUS Research AG, All Rights Reserved
+ */
+package ch.abacus.db.components;
+
+import ch.abacus.common.DbConst;
+import ch.abacus.common.SQLStatments;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+//hi/lo ids from the id_allocator table, shared by the SQL and the JPA backend.
+//The allocator has its own connection outside the pool: the callers already hold a pooled connection,
+//borrowing a second one deadlocks as soon as every pooled connection belongs to a writer
+public class IdAllocator {
+
+  private static IdAllocator idAllocator = null;
+  private final int allocationSize;
+  private final String url;
+  private final String user;
+  private final String password;
+  private final Map<String, long[]> ranges = new HashMap<>(); //name -> {next, end}
+  private Connection connection; //autocommit, so a block is never rolled back with the caller's transaction
+
+  public static synchronized IdAllocator getInstance() {
+    if (idAllocator == null) {
+      idAllocator = new IdAllocator(DbConst.IDALLOCATIONSIZE);
+    }
+    return idAllocator;
+  }
+
+  public IdAllocator(int allocationSize) {
+    this(allocationSize, DbConst.URL, DbConst.USER, DbConst.PASS);
+  }
+
+  public IdAllocator(int allocationSize, String url, String user, String password) {
+    if (allocationSize < 1) {
+      throw new IllegalArgumentException(DbConst.IDINVALIDALLOCATIONSIZE + allocationSize);
+    }
+    this.allocationSize = allocationSize;
+    this.url = url;
+    this.user = user;
+    this.password = password;
+  }
+
+  public synchronized long next(String name) throws SQLException {
+    long[] range = ranges.get(name);
+    if (range == null || range[0] >= range[1]) {
+      range = allocate(name);
+      ranges.put(name, range);
+    }
+    return range[0]++;
+  }
+
+  //one roundtrip per allocationSize ids, the update is atomic so several processes never get the same block
+  private long[] allocate(String name) throws SQLException {
+    try {
+      Connection connection = getConnection();
+      try (PreparedStatement preparedStatement = connection.prepareStatement(SQLStatments.ALLOCATE_IDS)) {
+        preparedStatement.setInt(1, allocationSize);
+        preparedStatement.setString(2, name);
+        if (preparedStatement.executeUpdate() == 0) {
+          throw new SQLException(DbConst.IDUNKNOWNALLOCATOR + name);
+        }
+      }
+      try (PreparedStatement preparedStatement = connection.prepareStatement(SQLStatments.SELECT_LAST_INSERT_ID)) {
+        ResultSet resultSet = preparedStatement.executeQuery();
+        resultSet.next();
+        long end = resultSet.getLong(1);
+        return new long[]{end - allocationSize, end};
+      }
+    } catch (SQLException e) {
+      close(); //opened again by the next allocation
+      throw e;
+    }
+  }
+
+  private Connection getConnection() throws SQLException {
+    if (connection == null || !connection.isValid(DbConst.POOLVALIDATIONTIMEOUTSECONDS)) {
+      close();
+      connection = DriverManager.getConnection(url, user, password);
+    }
+    return connection;
+  }
+
+  public synchronized void close() {
+    if (connection != null) {
+      try {
+        connection.close();
+      } catch (SQLException e) {
+        System.out.println(DbConst.SQLEXCEPTION + e.getMessage());
+      }
+      connection = null;
+    }
+  }
+}
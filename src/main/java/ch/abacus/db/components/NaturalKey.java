@@ -0,0 +1,54 @@
+/*
+ * NaturalKey.java
+ *
+ * Creator:
+ * 18.10.2026 09:25 agent
+ *
+ * Maintainer:
+ * 18.10.2026 09:25 agent
+ *
+ * Last Modification:
+ * $Id:$
+ *
+ * Copyright (c) 2024 ABACUS Research AG, All Rights Reserved
+ */
+package ch.abacus.db.components;
+
+import ch.abacus.common.DbConst;
+import ch.abacus.common.SQLStatments;
+import ch.abacus.db.entity.Address;
+import ch.abacus.db.entity.Gender;
+import ch.abacus.db.entity.Person;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Locale;
+
+public class NaturalKey {
+
+  private NaturalKey() {
+  }
+
+  //lower-cased and joined like the MD5 behind the natural_key columns, two keys are equal exactly when the unique index says so.
+  //Lookups must go through that hash too, the column collation also ignores accents and trailing spaces
+  public static String of(Address address) {
+    return String.join(DbConst.KEYSEPARATOR, address.getStreet(), address.getStreetNumber(),
+                       String.valueOf(address.getZipCode()), address.getCity(), address.getCountry())
+        .toLowerCase(Locale.ROOT);
+  }
+
+  public static String of(Person person, Long addressId) {
+    return of(person.getFirstName(), person.getLastName(), person.getBirthdate(), person.getGender(), addressId);
+  }
+
+  //the hash expressions of an IN list over natural_key, five parameters each
+  public static String hashes(int count) {
+    return String.join(SQLStatments.PLACEHOLDER_SEPARATOR, Collections.nCopies(count, SQLStatments.NATURAL_KEY_HASH));
+  }
+
+  public static String of(String firstname, String lastname, LocalDate birthdate, Gender gender, Long addressId) {
+    return String.join(DbConst.KEYSEPARATOR, firstname, lastname, String.valueOf(birthdate),
+                       String.valueOf(gender), String.valueOf(addressId))
+        .toLowerCase(Locale.ROOT);
+  }
+}
@@ -0,0 +1,177 @@
+/*
+ * SchemaMigrator.java
+ *
+ * Creator:
+ * 18.10.2026 13:20 agent
+ *
+ * Maintainer:
+ * 18.10.2026 13:20 agent
+ *
+ * Last Modification:
+ * $Id:$
+ *
+ * Copyright (c) 2024 ABACUS Research AG, All Rights Reserved
+ */
+package ch.abacus.db.components;
+
+import ch.abacus.common.DbConst;
+import ch.abacus.common.SQLStatments;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+public class SchemaMigrator {
+
+  private static SchemaMigrator schemaMigrator = null;
+  private boolean migrated;
+
+  public static synchronized SchemaMigrator getInstance() {
+    if (schemaMigrator == null) {
+      schemaMigrator = new SchemaMigrator();
+    }
+    return schemaMigrator;
+  }
+
+  //runs once per process, a failed attempt is retried by the next caller
+  public synchronized void migrate(Consumer<Throwable> consumer) {
+    if (migrated) {
+      return;
+    }
+    try (Connection connection = ConnectionPool.getInstance().borrow()) {
+      lock(connection);
+      try {
+        applyMigrations(connection);
+      } finally {
+        unlock(connection);
+      }
+      checkIndexes(connection);
+      migrated = true;
+    } catch (SQLException | IOException e) {
+      consumer.accept(e);
+    }
+  }
+
+  private void applyMigrations(Connection connection) throws SQLException, IOException {
+    try (Statement statement = connection.createStatement()) {
+      statement.execute(SQLStatments.CREATE_SCHEMA_VERSION);
+    }
+    Set<Integer> applied = appliedVersions(connection);
+
+    for (String script : DbConst.MIGRATIONS) {
+      int version = version(script);
+      if (applied.contains(version)) {
+        continue;
+      }
+      for (String sql : readStatements(script)) {
+        execute(connection, sql);
+      }
+      try (PreparedStatement preparedStatement = connection.prepareStatement(SQLStatments.INSERT_SCHEMA_VERSION)) {
+        preparedStatement.setInt(1, version);
+        preparedStatement.setString(2, script);
+        preparedStatement.executeUpdate();
+      }
+      System.out.println(DbConst.MIGRATIONAPPLIED + script);
+    }
+  }
+
+  private void execute(Connection connection, String sql) throws SQLException {
+    try (Statement statement = connection.createStatement()) {
+      statement.execute(sql);
+    } catch (SQLException e) {
+      //databases created with script.sql already have these columns and indexes
+      if (e.getErrorCode() != DbConst.ERDUPFIELDNAME && e.getErrorCode() != DbConst.ERDUPKEYNAME) {
+        throw e;
+      }
+    }
+  }
+
+  private Set<Integer> appliedVersions(Connection connection) throws SQLException {
+    Set<Integer> versions = new HashSet<>();
+    try (PreparedStatement preparedStatement = connection.prepareStatement(SQLStatments.SELECT_SCHEMA_VERSIONS)) {
+      ResultSet resultSet = preparedStatement.executeQuery();
+      while (resultSet.next()) {
+        versions.add(resultSet.getInt(1));
+      }
+    }
+    return versions;
+  }
+
+  private int version(String script) {
+    return Integer.parseInt(script.substring(DbConst.MIGRATIONPREFIX.length(), script.indexOf(DbConst.MIGRATIONVERSIONSEPARATOR)));
+  }
+
+  private List<String> readStatements(String script) throws IOException {
+    InputStream inputStream = SchemaMigrator.class.getResourceAsStream(DbConst.MIGRATIONPATH + script);
+    if (inputStream == null) {
+      throw new IOException(DbConst.MIGRATIONMISSING + script);
+    }
+
+    List<String> statements = new ArrayList<>();
+    StringBuilder current = new StringBuilder();
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        String trimmed = line.trim();
+        if (trimmed.isEmpty() || trimmed.startsWith(DbConst.SQLCOMMENT)) {
+          continue;
+        }
+        current.append(line).append('\n');
+        if (trimmed.endsWith(DbConst.STATEMENTSEPARATOR)) {
+          statements.add(current.substring(0, current.lastIndexOf(DbConst.STATEMENTSEPARATOR)));
+          current.setLength(0);
+        }
+      }
+    }
+    if (current.toString().trim().length() > 0) {
+      statements.add(current.toString());
+    }
+    return statements;
+  }
+
+  //several processes may start at the same time, only one of them migrates
+  private void lock(Connection connection) throws SQLException {
+    try (PreparedStatement preparedStatement = connection.prepareStatement(SQLStatments.GET_LOCK)) {
+      preparedStatement.setString(1, DbConst.MIGRATIONLOCK);
+      preparedStatement.setInt(2, DbConst.MIGRATIONLOCKTIMEOUTSECONDS);
+      ResultSet resultSet = preparedStatement.executeQuery();
+      if (!resultSet.next() || resultSet.getInt(1) != 1) {
+        throw new SQLException(DbConst.MIGRATIONLOCKFAILED);
+      }
+    }
+  }
+
+  private void unlock(Connection connection) throws SQLException {
+    try (PreparedStatement preparedStatement = connection.prepareStatement(SQLStatments.RELEASE_LOCK)) {
+      preparedStatement.setString(1, DbConst.MIGRATIONLOCK);
+      preparedStatement.executeQuery();
+    }
+  }
+
+  private void checkIndexes(Connection connection) throws SQLException {
+    Set<String> indexes = new HashSet<>();
+    try (PreparedStatement preparedStatement = connection.prepareStatement(SQLStatments.SELECT_INDEXES)) {
+      ResultSet resultSet = preparedStatement.executeQuery();
+      while (resultSet.next()) {
+        indexes.add(resultSet.getString(1) + DbConst.DOT + resultSet.getString(2));
+      }
+    }
+    for (String expected : DbConst.EXPECTEDINDEXES) {
+      if (!indexes.contains(expected)) {
+        System.out.println(DbConst.INDEXMISSING + expected);
+      }
+    }
+  }
+}
@@ -0,0 +1,24 @@
+/*
+ * SqlOperation.java
+ *
+ * Creator:
+ * 18.10.2026 08:40 agent
+ *
+ * Maintainer:
+ * 18.10.2026 08:40 agent
+ *
+ * Last Modification:
+ * $Id:$
+ *
+ * Copyright (c) 2024 ABACUS Research AG, All Rights Reserved
+ */
+package ch.abacus.db.components;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+@FunctionalInterface
+public interface SqlOperation<T> {
+
+  T execute(Connection connection) throws SQLException;
+}
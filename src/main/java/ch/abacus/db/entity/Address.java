@@ -15,12 +15,19 @@
 package ch.abacus.db.entity;
 
 import ch.abacus.common.DbConst;
+import ch.abacus.common.JPAStatments;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
 import javax.persistence.Table;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
@@ -30,14 +37,22 @@ import java.io.Serializable;
 import java.util.Objects;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = DbConst.ADDRESSSMALL)
+@NamedQueries({
+    @NamedQuery(name = JPAStatments.NAMED_SELECT_ID_BY_ADDRESS, query = JPAStatments.SELECT_ID_BY_ADDRESS),
+    @NamedQuery(name = JPAStatments.NAMED_SELECT_ADDRESS_BY_FIELDS, query = JPAStatments.SELECT_ADDRESS_BY_FIELDS)
+})
 @XmlRootElement
 @XmlAccessorType(XmlAccessType.FIELD)
 public class Address implements Serializable {
 
   @Id
   @XmlTransient
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(generator = DbConst.ADDRESSIDGENERATOR)
+  @GenericGenerator(name = DbConst.ADDRESSIDGENERATOR, strategy = DbConst.IDGENERATORSTRATEGY,
+                    parameters = @Parameter(name = DbConst.IDALLOCATORNAME, value = DbConst.ADDRESSSMALL))
   @Column(name = DbConst.IDADDRESS)
   private Long id_address;
 
@@ -15,18 +15,27 @@
 package ch.abacus.db.entity;
 
 import ch.abacus.common.DbConst;
+import ch.abacus.common.JPAStatments;
 import ch.abacus.fileio.LocalDateAdapter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
 import javax.persistence.Table;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
@@ -39,14 +48,23 @@ import java.time.LocalDate;
 import java.util.Objects;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = DbConst.PERSONSMALL)
+@NamedEntityGraph(name = JPAStatments.GRAPH_PERSON_WITH_ADDRESS, attributeNodes = @NamedAttributeNode(DbConst.ADDRESSATTRIBUTE))
+@NamedQueries({
+    @NamedQuery(name = JPAStatments.NAMED_USAGECOUNT_FROM_PERSON, query = JPAStatments.USAGECOUNT_FROM_PERSON),
+    @NamedQuery(name = JPAStatments.NAMED_EXISTS_PERSON_BY_ADDRESS, query = JPAStatments.EXISTS_PERSON_BY_ADDRESS)
+})
 @XmlRootElement
 @XmlAccessorType(XmlAccessType.FIELD)
 public class Person implements Serializable {
 
   @Id
   @XmlTransient
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(generator = DbConst.PERSONIDGENERATOR)
+  @GenericGenerator(name = DbConst.PERSONIDGENERATOR, strategy = DbConst.IDGENERATORSTRATEGY,
+                    parameters = @Parameter(name = DbConst.IDALLOCATORNAME, value = DbConst.PERSONSMALL))
   @Column(name = DbConst.IDPERSON)
   private Long id_person;
   @Column(name = DbConst.FIRSTNAME)
@@ -0,0 +1,55 @@
+/*
+ * PersonSummary.java
+ *
+ * Creator:
+ * 18.10.2026 16:45 agent
+ *
+ * Maintainer:
+ * 18.10.2026 16:45 agent
+ *
+ * Last Modification:
+ * $Id:$
+ *
+ * Copyright (c) 2024 ABACUS Research AG, All Rights Reserved
+ */
+package ch.abacus.db.entity;
+
+import java.io.Serializable;
+
+//one row of the person table, the full Person is loaded by id once the row is selected
+public class PersonSummary implements Serializable {
+
+  private final Long id_person;
+  private String firstname;
+  private String lastname;
+
+  public PersonSummary(Long id_person, String firstname, String lastname) {
+    this.id_person = id_person;
+    this.firstname = firstname;
+    this.lastname = lastname;
+  }
+
+  public static PersonSummary of(Person person) {
+    return new PersonSummary(person.getId_person(), person.getFirstName(), person.getLastName());
+  }
+
+  public Long getId_person() {
+    return id_person;
+  }
+
+  public String getFirstName() {
+    return firstname;
+  }
+
+  public void setFirstName(String firstname) {
+    this.firstname = firstname;
+  }
+
+  public String getLastName() {
+    return lastname;
+  }
+
+  public void setLastName(String lastname) {
+    this.lastname = lastname;
+  }
+}
@@ -24,7 +24,10 @@ CREATE TABLE address (
     streetnumber VARCHAR(8) NOT NULL,
     postalcode INT NOT NULL,
     city VARCHAR(32) NOT NULL,
-    country VARCHAR(32) NOT NULL
+    country VARCHAR(32) NOT NULL,
+    -- hashed natural key, lets INSERT ... ON DUPLICATE KEY UPDATE detect duplicates
+    natural_key BINARY(16) AS (UNHEX(MD5(LOWER(CONCAT_WS(CHAR(31 USING utf8mb4), street, streetnumber, postalcode, city, country))))) STORED,
+    UNIQUE KEY uq_address_natural_key (natural_key)
 );
 
 -- Create the person table
@@ -35,7 +38,37 @@ CREATE TABLE person (
     lastname VARCHAR(128) NOT NULL,
     birthdate DATE NOT NULL,
     gender ENUM("male", "female") NOT NULL,
+    natural_key BINARY(16) AS (UNHEX(MD5(LOWER(CONCAT_WS(CHAR(31 USING utf8mb4), firstname, lastname, birthdate, gender, fk_address))))) STORED,
+    UNIQUE KEY uq_person_natural_key (natural_key),
     FOREIGN KEY (fk_address) REFERENCES address(id_address)
 );
 
+-- hi/lo id blocks, see db/migration/V5__id_allocator.sql
+CREATE TABLE id_allocator (
+    name VARCHAR(32) PRIMARY KEY,
+    next_val BIGINT NOT NULL
+);
+INSERT INTO id_allocator (name, next_val) VALUES ('person', 1), ('address', 1);
+
+-- same indexes as db/migration/V4__lookup_indexes.sql and V6__page_indexes.sql
+CREATE INDEX idx_person_lookup ON person (lastname, firstname, birthdate, gender);
+CREATE INDEX idx_person_fk_address ON person (fk_address);
+CREATE INDEX idx_address_lookup ON address (postalcode, street, streetnumber);
+CREATE INDEX idx_person_firstname_page ON person (firstname, id_person);
+CREATE INDEX idx_person_lastname_page ON person (lastname, id_person);
+CREATE INDEX idx_person_birthdate_page ON person (birthdate, id_person);
+
+-- this schema is the state after every migration in DbConst.MIGRATIONS, SchemaMigrator must not apply them again
+CREATE TABLE schema_version (
+    version INT PRIMARY KEY,
+    script VARCHAR(128) NOT NULL,
+    installed_on TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+INSERT INTO schema_version (version, script) VALUES
+    (1, 'V1__baseline.sql'),
+    (3, 'V3__natural_keys.sql'),
+    (4, 'V4__lookup_indexes.sql'),
+    (5, 'V5__id_allocator.sql'),
+    (6, 'V6__page_indexes.sql');
+
 select * from person;
\ No newline at end of file
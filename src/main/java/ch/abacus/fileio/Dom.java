@@ -15,6 +15,7 @@
 package ch.abacus.fileio;
 
 import ch.abacus.common.FileIOConst;
+import ch.abacus.fileio.components.CompressedFiles;
 import ch.abacus.fileio.components.GetGender;
 import ch.abacus.fileio.components.XMLWRITE;
 import ch.abacus.db.entity.Address;
@@ -35,16 +36,16 @@ import org.xml.sax.SAXException;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
-import java.io.BufferedWriter;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.LinkedList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public class Dom implements PersonIO {
@@ -52,6 +53,15 @@ public class Dom implements PersonIO {
   private PersonIO next;
   private final GetGender getGender = new GetGender();
   GetFileExtension getFileExtension = new GetFileExtension();
+  private final CompressedFiles compressedFiles;
+
+  public Dom() {
+    this(new CompressedFiles());
+  }
+
+  public Dom(CompressedFiles compressedFiles) {
+    this.compressedFiles = compressedFiles;
+  }
 
   @Override
   public void write(List<Person> list, File file, XMLWRITE xmlwriteMethode) throws IOException {
@@ -111,13 +121,8 @@ public class Dom implements PersonIO {
           rootElement.appendChild(personElement);
         }
 
-        String xmlString = writeDocumentWithEncoding(doc);
-
-        xmlString = xmlString.replaceFirst(FileIOConst.XMLSTRINGTOREPLACE,
-                                           FileIOConst.XMLDOCTYP);
-
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
-          writer.write(xmlString);
+        try (OutputStream outputStream = compressedFiles.newOutputStream(file)) {
+          writeDocumentWithEncoding(doc, outputStream);
         }
       } catch (Exception e) {
         throw new IOException(FileIOConst.ERRORSTORINGXML, e);
@@ -127,7 +132,8 @@ public class Dom implements PersonIO {
     }
   }
 
-  public static String writeDocumentWithEncoding(Node aContent) {
+  //serializes straight into the stream, the document is never copied into a byte array or a String
+  public static void writeDocumentWithEncoding(Node aContent, OutputStream outputStream) throws IOException {
     String encoding = StandardCharsets.UTF_8.name();
 
     DOMImplementationSource registry = new DOMXSImplementationSourceImpl();
@@ -144,14 +150,15 @@ public class Dom implements PersonIO {
     if (config.canSetParameter(/*NlsIgnore*/FileIOConst.NAMESPACEDECLARATIONS, true)) {
       config.setParameter(/*NlsIgnore*/FileIOConst.NAMESPACEDECLARATIONS, true);
     }
+    //the serializer can't write standalone="yes", so the declaration is written up front instead of patched in afterwards
+    config.setParameter(/*NlsIgnore*/FileIOConst.XMLDECLARATION, false);
+    outputStream.write((FileIOConst.XMLDOCTYP + FileIOConst.NEWLINE).getBytes(StandardCharsets.UTF_8));
     LSOutput lsOutput = impl.createLSOutput();
-    ByteArrayOutputStream btOutputStream = new ByteArrayOutputStream();
 
     lsOutput.setEncoding(encoding);
 
-    lsOutput.setByteStream(btOutputStream);
+    lsOutput.setByteStream(outputStream);
     lsSerializer.write(aContent, lsOutput);
-    return lsOutput.getByteStream().toString();
   }
 
   @Override
@@ -162,7 +169,7 @@ public class Dom implements PersonIO {
     if (fileExtension.isPresent() && FileIOConst.XML.equalsIgnoreCase(fileExtension.get()) && xmlwriteMethode.equals(XMLWRITE.DOM)) {
       DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
       try {
-        try (FileInputStream fileInputStream = new FileInputStream(file)) {
+        try (InputStream fileInputStream = compressedFiles.newInputStream(file)) {
           DocumentBuilder builder = factory.newDocumentBuilder();
           Document document = builder.parse(fileInputStream);
 
@@ -171,15 +178,17 @@ public class Dom implements PersonIO {
           for (int i = 0; i < personNodes.getLength(); i++) {
             Element personElement = (Element) personNodes.item(i);
 
-            String firstname = getTextContent(personElement, FileIOConst.FIRSTNAME);
-            String lastname = getTextContent(personElement, FileIOConst.LASTNAME);
-            String birthdate = getTextContent(personElement, FileIOConst.BIRTHDATE);
-            Gender gender = getGender.getGender(getTextContent(personElement, FileIOConst.GENDER));
-            String street = getTextContent(personElement, FileIOConst.STREET);
-            String streetnumber = getTextContent(personElement, FileIOConst.STREETNUMBER);
-            String zipcode = getTextContent(personElement, FileIOConst.ZIPCODE);
-            String city = getTextContent(personElement, FileIOConst.CITY);
-            String country = getTextContent(personElement, FileIOConst.COUNTRY);
+            Map<String, String> values = new HashMap<>();
+            readChildren(personElement, values);
+            String firstname = values.get(FileIOConst.FIRSTNAME);
+            String lastname = values.get(FileIOConst.LASTNAME);
+            String birthdate = values.get(FileIOConst.BIRTHDATE);
+            Gender gender = getGender.getGender(values.get(FileIOConst.GENDER));
+            String street = values.get(FileIOConst.STREET);
+            String streetnumber = values.get(FileIOConst.STREETNUMBER);
+            String zipcode = values.get(FileIOConst.ZIPCODE);
+            String city = values.get(FileIOConst.CITY);
+            String country = values.get(FileIOConst.COUNTRY);
 
             Address address = null;
             if (zipcode != null) {
@@ -201,12 +210,28 @@ public class Dom implements PersonIO {
     return newPerson;
   }
 
-  private String getTextContent(Element parentElement, String childElementName) {
-    NodeList nodeList = parentElement.getElementsByTagName(childElementName);
-    if (nodeList.getLength() > 0) {
-      return nodeList.item(0).getTextContent().trim();
+  //one walk over the children of a person, the address is descended into on the way.
+  //The first occurrence of a field wins, like getElementsByTagName(...).item(0) did
+  private void readChildren(Element parentElement, Map<String, String> values) {
+    for (Node child = parentElement.getFirstChild(); child != null; child = child.getNextSibling()) {
+      if (child.getNodeType() != Node.ELEMENT_NODE) {
+        continue;
+      }
+      if (hasChildElements(child)) {
+        readChildren((Element) child, values);
+      } else {
+        values.putIfAbsent(child.getNodeName(), child.getTextContent().trim());
+      }
+    }
+  }
+
+  private boolean hasChildElements(Node node) {
+    for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+      if (child.getNodeType() == Node.ELEMENT_NODE) {
+        return true;
+      }
     }
-    return null;
+    return false;
   }
 
   @Override
@@ -15,14 +15,26 @@
 package ch.abacus.fileio;
 
 import ch.abacus.common.FileIOConst;
+import ch.abacus.fileio.components.Compression;
 
 import java.util.Optional;
 
 public class GetFileExtension {
 
+  //the format of the file, a compression suffix is skipped: persons.xml.gz -> xml
   public Optional<String> getExtensionByStringHandling(String filename) {
     return Optional.ofNullable(filename)
+        .map(f -> f.substring(0, f.length() - suffixLength(f)))
         .filter(f -> f.contains(FileIOConst.DOT))
-        .map(f -> f.substring(filename.lastIndexOf(FileIOConst.DOT) + 1));
+        .map(f -> f.substring(f.lastIndexOf(FileIOConst.DOT) + 1));
+  }
+
+  public Compression getCompression(String filename) {
+    return Compression.of(filename);
+  }
+
+  private int suffixLength(String filename) {
+    Compression compression = Compression.of(filename);
+    return compression == Compression.NONE ? 0 : compression.getExtension().length() + 1;
   }
 }
\ No newline at end of file
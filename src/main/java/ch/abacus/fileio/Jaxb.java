@@ -15,19 +15,17 @@
 package ch.abacus.fileio;
 
 import ch.abacus.common.FileIOConst;
+import ch.abacus.fileio.components.CompressedFiles;
+import ch.abacus.fileio.components.JaxbContextHolder;
 import ch.abacus.fileio.components.XMLWRITE;
 import ch.abacus.db.entity.Person;
 import ch.abacus.db.entity.Persons;
 
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
-import javax.xml.bind.Marshaller;
-import javax.xml.bind.Unmarshaller;
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
@@ -36,6 +34,15 @@ public class Jaxb implements PersonIO {
 
   private PersonIO next;
   GetFileExtension getFileExtension = new GetFileExtension();
+  private final CompressedFiles compressedFiles;
+
+  public Jaxb() {
+    this(new CompressedFiles());
+  }
+
+  public Jaxb(CompressedFiles compressedFiles) {
+    this.compressedFiles = compressedFiles;
+  }
 
   @Override
   public void write(List<Person> list, File file, XMLWRITE xmlwriteMethode) throws IOException {
@@ -46,12 +53,8 @@ public class Jaxb implements PersonIO {
         Persons persons = new Persons();
         persons.setPersons(list);
 
-        JAXBContext context = JAXBContext.newInstance(Persons.class);
-        Marshaller marshaller = context.createMarshaller();
-        marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
-
-        try (BufferedWriter bufferedWriter = new BufferedWriter(new FileWriter(file))) {
-          marshaller.marshal(persons, bufferedWriter);
+        try (OutputStream outputStream = compressedFiles.newOutputStream(file)) {
+          JaxbContextHolder.getInstance().marshal(persons, outputStream);
         }
       } catch (JAXBException e) {
         throw new IOException(e);
@@ -68,11 +71,8 @@ public class Jaxb implements PersonIO {
 
     if (fileExtension.isPresent() && FileIOConst.XML.equalsIgnoreCase(fileExtension.get()) && xmlwriteMethode.equals(XMLWRITE.JAXB)) {
       try {
-        try (FileInputStream fileInputStream = new FileInputStream(file)) {
-          JAXBContext context = JAXBContext.newInstance(Persons.class);
-          Unmarshaller unmarshaller = context.createUnmarshaller();
-
-          Persons persons = (Persons) unmarshaller.unmarshal(fileInputStream);
+        try (InputStream inputStream = compressedFiles.newInputStream(file)) {
+          Persons persons = JaxbContextHolder.getInstance().unmarshal(inputStream);
           newPersons = new LinkedList<>(persons.getPersons());
         }
       } catch (JAXBException e) {
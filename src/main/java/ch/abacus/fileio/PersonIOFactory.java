@@ -14,6 +14,7 @@
  */
 package ch.abacus.fileio;
 
+import ch.abacus.fileio.components.CompressedFiles;
 import ch.abacus.fileio.components.XMLWRITE;
 import ch.abacus.db.entity.Person;
 
@@ -26,16 +27,23 @@ public class PersonIOFactory {
   private final PersonIO startElement;
 
   public PersonIOFactory() {
-    PersonIO xmlDomAddressIO = startElement = new Dom();
-    PersonIO xmlSaxAddressIO = new Stax();
-    PersonIO xmlJaxbAddressIO = new Jaxb();
-    PersonIO csvAddressIO = new Csv();
-    PersonIO jsonGsonAddressIO = new Json();
+    this(new CompressedFiles());
+  }
+
+  //every format can be compressed, the file name decides: persons.xml.gz, persons.csv.deflate, ...
+  public PersonIOFactory(CompressedFiles compressedFiles) {
+    PersonIO xmlDomAddressIO = startElement = new Dom(compressedFiles);
+    PersonIO xmlSaxAddressIO = new Stax(compressedFiles);
+    PersonIO xmlJaxbAddressIO = new Jaxb(compressedFiles);
+    PersonIO csvAddressIO = new Csv(compressedFiles);
+    PersonIO snapshotAddressIO = new Snapshot(compressedFiles);
+    PersonIO jsonGsonAddressIO = new Json(compressedFiles);
 
     xmlDomAddressIO.setNext(xmlSaxAddressIO);
     xmlSaxAddressIO.setNext(xmlJaxbAddressIO);
     xmlJaxbAddressIO.setNext(csvAddressIO);
-    csvAddressIO.setNext(jsonGsonAddressIO);
+    csvAddressIO.setNext(snapshotAddressIO);
+    snapshotAddressIO.setNext(jsonGsonAddressIO);
   }
 
   public void write(List<Person> persons, File file, XMLWRITE xmlwrite) throws IOException {
@@ -0,0 +1,92 @@
+/*
+ * Snapshot.java
+ *
+ * Creator:
+ * 18.10.2026 22:00 agent
+ *
+ * Maintainer:
+ * 18.10.2026 22:00 agent
+ *
+ * Last Modification:
+ * $Id:$
+ *
+ * Copyright (c) 2024 ABACUS Research AG, All Rights Reserved
+ */
+package ch.abacus.fileio;
+
+import ch.abacus.common.FileIOConst;
+import ch.abacus.fileio.components.CompressedFiles;
+import ch.abacus.fileio.components.Compression;
+import ch.abacus.fileio.components.SnapshotCodec;
+import ch.abacus.fileio.components.XMLWRITE;
+import ch.abacus.db.entity.Person;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+//binary snapshot for backups and fast restarts, see SnapshotCodec for the layout
+public class Snapshot implements PersonIO {
+
+  private PersonIO next;
+  GetFileExtension getFileExtension = new GetFileExtension();
+  private final CompressedFiles compressedFiles;
+
+  public Snapshot() {
+    this(new CompressedFiles());
+  }
+
+  public Snapshot(CompressedFiles compressedFiles) {
+    this.compressedFiles = compressedFiles;
+  }
+
+  @Override
+  public void write(List<Person> list, File file, XMLWRITE xmlwriteMethode) throws IOException {
+    Optional<String> fileExtension = getFileExtension.getExtensionByStringHandling(file.toString());
+
+    if (fileExtension.isPresent() && FileIOConst.SNAPSHOT.equalsIgnoreCase(fileExtension.get())) {
+      if (getFileExtension.getCompression(file.getName()) == Compression.NONE) {
+        new SnapshotCodec().write(list, file.toPath());
+      } else {
+        try (OutputStream outputStream = compressedFiles.newOutputStream(file)) {
+          new SnapshotCodec().write(list, outputStream);
+        }
+      }
+    } else if (getNext() != null) {
+      getNext().write(list, file, xmlwriteMethode);
+    }
+  }
+
+  @Override
+  public List<Person> read(File file, XMLWRITE xmlwriteMethode) throws IOException {
+    List<Person> newPersons = new ArrayList<>();
+    Optional<String> fileExtension = getFileExtension.getExtensionByStringHandling(file.toString());
+
+    if (fileExtension.isPresent() && FileIOConst.SNAPSHOT.equalsIgnoreCase(fileExtension.get())) {
+      if (getFileExtension.getCompression(file.getName()) == Compression.NONE) {
+        newPersons = new SnapshotCodec().read(file.toPath());
+      } else {
+        try (InputStream inputStream = compressedFiles.newInputStream(file)) {
+          newPersons = new SnapshotCodec().read(inputStream);
+        }
+      }
+    } else if (getNext() != null) {
+      newPersons = getNext().read(file, xmlwriteMethode);
+    }
+
+    return newPersons;
+  }
+
+  @Override
+  public void setNext(PersonIO next) {
+    this.next = next;
+  }
+
+  private PersonIO getNext() {
+    return next;
+  }
+}
\ No newline at end of file
@@ -15,45 +15,47 @@
 package ch.abacus.fileio;
 
 import ch.abacus.common.FileIOConst;
-import ch.abacus.fileio.components.GetGender;
+import ch.abacus.fileio.components.CompressedFiles;
+import ch.abacus.fileio.components.StaxPersonReader;
 import ch.abacus.fileio.components.XMLWRITE;
-import ch.abacus.db.entity.Address;
 import ch.abacus.db.entity.Person;
-import org.xml.sax.Attributes;
-import org.xml.sax.SAXException;
-import org.xml.sax.helpers.DefaultHandler;
 
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.parsers.SAXParser;
-import javax.xml.parsers.SAXParserFactory;
 import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
 import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.time.LocalDate;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
 
 public class Stax implements PersonIO {
 
+  private static final XMLOutputFactory OUTPUTFACTORY = XMLOutputFactory.newInstance();
+
   private PersonIO next;
-  private final GetGender getGender = new GetGender();
 
   GetFileExtension getFileExtension = new GetFileExtension();
+  private final CompressedFiles compressedFiles;
+
+  public Stax() {
+    this(new CompressedFiles());
+  }
+
+  public Stax(CompressedFiles compressedFiles) {
+    this.compressedFiles = compressedFiles;
+  }
 
   @Override
   public void write(List<Person> list, File file, XMLWRITE xmlwriteMethode) throws IOException {
     Optional<String> fileExtension = getFileExtension.getExtensionByStringHandling(file.toString());
 
     if (fileExtension.isPresent() && FileIOConst.XML.equalsIgnoreCase(fileExtension.get()) && xmlwriteMethode.equals(XMLWRITE.STAX)) {
-      try (BufferedWriter bufferedWriter = new BufferedWriter(new FileWriter(file))) {
-        XMLOutputFactory outputFactory = XMLOutputFactory.newInstance();
-        XMLStreamWriter writer = outputFactory.createXMLStreamWriter(bufferedWriter);
+      try (BufferedWriter bufferedWriter = new BufferedWriter(new OutputStreamWriter(compressedFiles.newOutputStream(file), FileIOConst.XMLCHARSET))) {
+        XMLStreamWriter writer = OUTPUTFACTORY.createXMLStreamWriter(bufferedWriter);
 
         writer.writeDTD(FileIOConst.XMLDOCTYP);
         writer.writeCharacters(FileIOConst.NEWLINE);
@@ -87,12 +89,12 @@ public class Stax implements PersonIO {
           writer.writeCharacters(FileIOConst.FOURSPACE);
           writer.writeEndElement();
           writer.writeCharacters(FileIOConst.NEWLINE);
-          writer.flush();
         }
         writer.writeEndElement();
         writer.writeCharacters(FileIOConst.NEWLINE);
 
         writer.writeEndDocument();
+        writer.flush();
       } catch (XMLStreamException e) {
         throw new IOException(e);
       }
@@ -125,56 +127,8 @@ public class Stax implements PersonIO {
     Optional<String> fileExtension = getFileExtension.getExtensionByStringHandling(file.toString());
 
     if (fileExtension.isPresent() && FileIOConst.XML.equalsIgnoreCase(fileExtension.get()) && xmlwriteMethode.equals(XMLWRITE.STAX)) {
-      try {
-        try (FileInputStream fileInputStream = new FileInputStream(file)) {
-          SAXParserFactory factory = SAXParserFactory.newInstance();
-          SAXParser saxParser = factory.newSAXParser();
-
-          DefaultHandler handler = new DefaultHandler() {
-            private Person person;
-            private Address address;
-            private String elementName;
-
-            @Override
-            public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
-              elementName = qName;
-              if (FileIOConst.PERSON.equals(elementName)) {
-                person = new Person(null, null, null, null, null);
-                address = new Address(null, null, 0, null, null);
-              }
-            }
-
-            @Override
-            public void characters(char[] ch, int start, int length) throws SAXException {
-              String text = new String(ch, start, length).trim();
-              if (!text.isEmpty()) {
-                if (FileIOConst.BIRTHDATE.equals(elementName)) {
-                  if (person != null) {
-                    person.setBirthdate(LocalDate.parse(text));
-                  }
-                } else {
-                  setPersonProperty(person, address, elementName, text);
-                }
-              }
-            }
-
-            @Override
-            public void endElement(String uri, String localName, String qName) throws SAXException {
-              if (FileIOConst.PERSON.equals(qName)) {
-                if (person != null) {
-                  person.setAddress(address);
-                }
-                list.add(person);
-                person = null;
-                address = null;
-              }
-            }
-          };
-
-          saxParser.parse(fileInputStream, handler);
-        }
-      } catch (ParserConfigurationException | SAXException | IOException e) {
-        throw new IOException(e);
+      try (InputStream inputStream = compressedFiles.newInputStream(file)) {
+        new StaxPersonReader().read(inputStream, list::add);
       }
     } else if (getNext() != null) {
       newPersons = getNext().read(file, xmlwriteMethode);
@@ -187,40 +141,6 @@ public class Stax implements PersonIO {
     }
   }
 
-  private void setPersonProperty(Person person, Address address, String elementName, String value) {
-    switch (elementName) {
-      case FileIOConst.FIRSTNAME:
-        person.setFirstName(value);
-        break;
-      case FileIOConst.LASTNAME:
-        person.setLastName(value);
-        break;
-      case FileIOConst.BIRTHDATE:
-        person.setBirthdate(LocalDate.parse(value));
-        break;
-      case FileIOConst.GENDER:
-        person.setGender(getGender.getGender(value));
-        break;
-      case FileIOConst.STREET:
-        address.setStreet(value);
-        break;
-      case FileIOConst.STREETNUMBER:
-        address.setStreetNumber(value);
-        break;
-      case FileIOConst.ZIPCODE:
-        address.setZipCode(Integer.parseInt(value));
-        break;
-      case FileIOConst.CITY:
-        address.setCity(value);
-        break;
-      case FileIOConst.COUNTRY:
-        address.setCountry(value);
-        break;
-      default:
-        throw new IllegalStateException(FileIOConst.UNEXPECTEDVALUE + elementName);
-    }
-  }
-
   @Override
   public void setNext(PersonIO next) {
     this.next = next;
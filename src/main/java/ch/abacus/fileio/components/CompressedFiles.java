@@ -0,0 +1,112 @@
+/*
+ * CompressedFiles.java
+ *
+ * Creator:
+ * 18.10.2026 20:45 agent
+ *
+ * Maintainer:
+ * 18.10.2026 20:45 agent
+ *
+ * Last Modification:
+ * $Id:$
+ *
+ * Copyright (c) 2024 ABACUS Research AG, All Rights Reserved
+ */
+package ch.abacus.fileio.components;
+
+import ch.abacus.common.FileIOConst;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+//opens the streams of an export file, a .gz or .deflate file is compressed and decompressed on the fly
+public class CompressedFiles {
+
+  private final int level;
+  private final int bufferSize;
+
+  public CompressedFiles() {
+    this(FileIOConst.COMPRESSIONLEVEL, FileIOConst.COMPRESSIONBUFFER);
+  }
+
+  public CompressedFiles(int level, int bufferSize) {
+    this.level = level;
+    this.bufferSize = bufferSize;
+  }
+
+  public InputStream newInputStream(File file) throws IOException {
+    InputStream inputStream = new FileInputStream(file);
+    try {
+      switch (Compression.of(file.getName())) {
+        case GZIP:
+          inputStream = new GZIPInputStream(inputStream, bufferSize);
+          break;
+        case DEFLATE:
+          Inflater inflater = new Inflater();
+          inputStream = new InflaterInputStream(inputStream, inflater, bufferSize) {
+            @Override
+            public void close() throws IOException {
+              try {
+                super.close();
+              } finally {
+                inflater.end(); //an Inflater passed in is not released by the stream itself
+              }
+            }
+          };
+          break;
+        default:
+          break;
+      }
+    } catch (IOException e) {
+      inputStream.close();
+      throw e;
+    }
+    return new BufferedInputStream(inputStream, bufferSize);
+  }
+
+  public OutputStream newOutputStream(File file) throws IOException {
+    OutputStream outputStream = new FileOutputStream(file);
+    try {
+      switch (Compression.of(file.getName())) {
+        case GZIP:
+          outputStream = new GZIPOutputStream(outputStream, bufferSize) {
+            {
+              def.setLevel(level);
+            }
+          };
+          break;
+        case DEFLATE:
+          Deflater deflater = new Deflater(level);
+          outputStream = new DeflaterOutputStream(outputStream, deflater, bufferSize) {
+            @Override
+            public void close() throws IOException {
+              try {
+                super.close();
+              } finally {
+                deflater.end(); //a Deflater passed in is not released by the stream itself
+              }
+            }
+          };
+          break;
+        default:
+          break;
+      }
+    } catch (IOException e) {
+      outputStream.close();
+      throw e;
+    }
+    return new BufferedOutputStream(outputStream, bufferSize);
+  }
+}
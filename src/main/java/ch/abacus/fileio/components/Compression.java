@@ -0,0 +1,44 @@
+/*
+ * Compression.java
+ *
+ * Creator:
+ * 18.10.2026 20:40 agent
+ *
+ * Maintainer:
+ * 18.10.2026 20:40 agent
+ *
+ * Last Modification:
+ * $Id:$
+ *
+ * Copyright (c) 2024 ABACUS Research AG, All Rights Reserved
+ */
+package ch.abacus.fileio.components;
+
+import ch.abacus.common.FileIOConst;
+
+public enum Compression {
+  NONE(FileIOConst.NOTHING),
+  GZIP(FileIOConst.GZ),
+  DEFLATE(FileIOConst.DEFLATE);
+
+  private final String extension;
+
+  Compression(String extension) {
+    this.extension = extension;
+  }
+
+  public String getExtension() {
+    return extension;
+  }
+
+  //the last extension of the file name decides, everything else is read and written as is
+  public static Compression of(String filename) {
+    for (Compression compression : values()) {
+      if (compression != NONE && filename.regionMatches(true, filename.length() - compression.extension.length() - 1,
+                                                        FileIOConst.DOT + compression.extension, 0, compression.extension.length() + 1)) {
+        return compression;
+      }
+    }
+    return NONE;
+  }
+}
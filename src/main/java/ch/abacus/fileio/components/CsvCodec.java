@@ -0,0 +1,459 @@
+/*
+ * CsvCodec.java
+ *
+ * Creator:
+ * 18.10.2026 17:05 agent
+ *
+ * Maintainer:
+ * 18.10.2026 17:05 agent
+ *
+ * Last Modification:
+ * $Id:$
+ *
+ * Copyright (c) 2024 ABACUS Research AG, All Rights Reserved
+ */
+package ch.abacus.fileio.components;
+
+import ch.abacus.common.FileIOConst;
+import ch.abacus.db.entity.Address;
+import ch.abacus.db.entity.Gender;
+import ch.abacus.db.entity.Person;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+//RFC 4180 reader and writer working on bytes, fields are only turned into Strings where the Person needs one.
+//An instance reuses its buffers and must not be shared between threads
+public class CsvCodec {
+
+  private static final byte QUOTE = '"';
+  private static final byte SEPARATOR = ',';
+  private static final byte CR = '\r';
+  private static final byte LF = '\n';
+  private static final byte SPACE = ' ';
+  private static final byte DASH = '-';
+  private static final byte PLUS = '+';
+  private static final byte[] MALE = {'m', 'a', 'l', 'e'};
+
+  private final int mapWindow;
+  private final int[] fieldStart = new int[FileIOConst.CSVFIELDS];
+  private final int[] fieldEnd = new int[FileIOConst.CSVFIELDS];
+  private byte[] record = new byte[256]; //unescaped bytes of the current record
+  private int recordLength;
+  private int fieldCount;
+  private boolean strayQuotes;
+  private final ByteBuffer out;
+  private final CharsetEncoder encoder = FileIOConst.CSVCHARSET.newEncoder();
+
+  public CsvCodec() {
+    this(FileIOConst.CSVMAPWINDOW, FileIOConst.CSVWRITEBUFFER);
+  }
+
+  public CsvCodec(int mapWindow, int writeBuffer) {
+    this.mapWindow = mapWindow;
+    this.out = ByteBuffer.allocate(writeBuffer);
+  }
+
+  public List<Person> read(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      return read(channel, 0, channel.size());
+    }
+  }
+
+  //from and to must be record boundaries
+  public List<Person> read(FileChannel channel, long from, long to) throws IOException {
+    List<Person> persons = new ArrayList<>();
+    long position = from;
+    while (position < to) {
+      int length = (int) Math.min(mapWindow, to - position);
+      boolean eof = position + length == to;
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+
+      int consumed = parseWindow(buffer, length, eof, position, persons);
+      if (consumed == 0 && !eof) {
+        throw new IOException(FileIOConst.CSVRECORDTOOLARGE + position);
+      }
+      position += consumed;
+    }
+    return persons;
+  }
+
+  //for streams that can't be mapped, e.g. compressed files. The buffer grows if a record does not fit
+  public List<Person> read(InputStream inputStream) throws IOException {
+    List<Person> persons = new ArrayList<>();
+    ReadableByteChannel channel = Channels.newChannel(inputStream);
+    ByteBuffer buffer = ByteBuffer.allocate(Math.min(mapWindow, FileIOConst.CSVSTREAMBUFFER));
+    long position = 0;
+    boolean eof = false;
+    while (!eof) {
+      while (!eof && buffer.hasRemaining()) {
+        eof = channel.read(buffer) < 0;
+      }
+      int length = buffer.position();
+      int consumed = parseWindow(buffer, length, eof, position, persons);
+      if (consumed == 0 && !eof) {
+        ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+        buffer.flip();
+        buffer = larger.put(buffer);
+        continue;
+      }
+      position += consumed;
+      buffer.flip().position(consumed);
+      buffer.compact();
+    }
+    return persons;
+  }
+
+  //parses the complete records of the window and returns the number of bytes they take
+  private int parseWindow(ByteBuffer buffer, int length, boolean eof, long position, List<Person> persons) throws IOException {
+    int consumed = 0;
+    while (consumed < length) {
+      int next = parseRecord(buffer, consumed, length, eof, position);
+      if (next < 0) {
+        break; //the record continues in the next window
+      }
+      if (recordLength > 0 || fieldCount > 1) {
+        persons.add(toPerson(position + consumed));
+      }
+      consumed = next;
+    }
+    return consumed;
+  }
+
+  //returns the position after the record, -1 if the window ends before the record does.
+  //offset is the file position of the window, errors report the byte in the file
+  private int parseRecord(ByteBuffer buffer, int pos, int limit, boolean eof, long offset) throws IOException {
+    recordLength = 0;
+    fieldCount = 0;
+    while (true) {
+      if (fieldCount == FileIOConst.CSVFIELDS) {
+        throw new IOException(FileIOConst.CSVTOOMANYFIELDS + (offset + pos));
+      }
+      while (pos < limit && buffer.get(pos) == SPACE) {
+        pos++;
+      }
+      fieldStart[fieldCount] = recordLength;
+      if (pos < limit && buffer.get(pos) == QUOTE) {
+        pos++;
+        while (true) {
+          if (pos >= limit) {
+            if (eof) {
+              throw new IOException(FileIOConst.CSVUNTERMINATEDQUOTE + (offset + pos));
+            }
+            return -1;
+          }
+          byte b = buffer.get(pos++);
+          if (b == QUOTE) {
+            if (pos >= limit && !eof) {
+              return -1; //cannot tell an escaped quote from the closing one yet
+            }
+            if (pos < limit && buffer.get(pos) == QUOTE) {
+              append(QUOTE);
+              pos++;
+            } else {
+              break;
+            }
+          } else {
+            append(b);
+          }
+        }
+        while (pos < limit && buffer.get(pos) == SPACE) {
+          pos++;
+        }
+      } else {
+        while (pos < limit) {
+          byte b = buffer.get(pos);
+          if (b == SEPARATOR || b == LF || b == CR) {
+            break;
+          }
+          strayQuotes |= b == QUOTE;
+          append(b);
+          pos++;
+        }
+        while (recordLength > fieldStart[fieldCount] && record[recordLength - 1] == SPACE) {
+          recordLength--;
+        }
+      }
+      fieldEnd[fieldCount] = recordLength;
+      fieldCount++;
+
+      if (pos >= limit) {
+        return eof ? pos : -1;
+      }
+      byte b = buffer.get(pos);
+      if (b == SEPARATOR) {
+        pos++;
+      } else if (b == LF) {
+        return pos + 1;
+      } else if (b == CR) {
+        if (pos + 1 >= limit) {
+          return eof ? pos + 1 : -1;
+        }
+        return buffer.get(pos + 1) == LF ? pos + 2 : pos + 1;
+      } else {
+        throw new IOException(FileIOConst.CSVMALFORMED + (offset + pos));
+      }
+    }
+  }
+
+  //true once a quote was read inside an unquoted field, e.g. 5" Street
+  public boolean hasStrayQuotes() {
+    return strayQuotes;
+  }
+
+  private void append(byte b) {
+    if (recordLength == record.length) {
+      byte[] larger = new byte[record.length * 2];
+      System.arraycopy(record, 0, larger, 0, recordLength);
+      record = larger;
+    }
+    record[recordLength++] = b;
+  }
+
+  private Person toPerson(long offset) throws IOException {
+    if (fieldCount != FileIOConst.CSVFIELDS) {
+      throw new IOException(FileIOConst.CSVMALFORMED + offset);
+    }
+    try {
+      Address address = new Address(text(4), text(5), parseInt(6), text(7), text(8));
+      return new Person(text(0), text(1), parseDate(2), parseGender(3), address);
+    } catch (NumberFormatException | DateTimeException e) {
+      throw new IOException(FileIOConst.CSVMALFORMED + offset, e);
+    }
+  }
+
+  private String text(int field) {
+    return new String(record, fieldStart[field], fieldEnd[field] - fieldStart[field], FileIOConst.CSVCHARSET);
+  }
+
+  private int parseInt(int field) {
+    return parseInt(fieldStart[field], fieldEnd[field]);
+  }
+
+  //the range writeInt produces, an optional minus and the digits of an int
+  private int parseInt(int from, int to) {
+    boolean negative = from < to && record[from] == DASH;
+    long value = parseDigits(negative ? from + 1 : from, to);
+    value = negative ? -value : value;
+    if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+      throw new NumberFormatException();
+    }
+    return (int) value;
+  }
+
+  private long parseDigits(int from, int to) {
+    if (from >= to || to - from > 18) {
+      throw new NumberFormatException();
+    }
+    long value = 0;
+    for (int i = from; i < to; i++) {
+      int digit = record[i] - '0';
+      if (digit < 0 || digit > 9) {
+        throw new NumberFormatException();
+      }
+      value = value * 10 + digit;
+    }
+    return value;
+  }
+
+  //yyyy-MM-dd like LocalDate.toString, years outside 0000-9999 have a sign and more digits
+  private LocalDate parseDate(int field) {
+    int start = fieldStart[field];
+    int end = fieldEnd[field];
+    if (end - start < 10 || record[end - 6] != DASH || record[end - 3] != DASH) {
+      throw new NumberFormatException();
+    }
+    int yearEnd = end - 6;
+    boolean signed = record[start] == DASH || record[start] == PLUS;
+    if (yearEnd - start < (signed ? 5 : 4) || (!signed && yearEnd - start != 4)) {
+      throw new NumberFormatException();
+    }
+    int year = record[start] == PLUS ? parseInt(start + 1, yearEnd) : parseInt(start, yearEnd);
+    return LocalDate.of(year, (int) parseDigits(end - 5, end - 3), (int) parseDigits(end - 2, end));
+  }
+
+  private Gender parseGender(int field) {
+    int start = fieldStart[field];
+    if (fieldEnd[field] - start != MALE.length) {
+      return Gender.FEMALE;
+    }
+    for (int i = 0; i < MALE.length; i++) {
+      if ((record[start + i] | 0x20) != MALE[i]) {
+        return Gender.FEMALE;
+      }
+    }
+    return Gender.MALE;
+  }
+
+  public void write(List<Person> persons, Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                StandardOpenOption.TRUNCATE_EXISTING)) {
+      write(persons, channel);
+    }
+  }
+
+  //the stream is not closed
+  public void write(List<Person> persons, OutputStream outputStream) throws IOException {
+    write(persons, Channels.newChannel(outputStream));
+    outputStream.flush();
+  }
+
+  private void write(List<Person> persons, WritableByteChannel channel) throws IOException {
+    out.clear();
+    for (Person person : persons) {
+      Address address = person.getAddress();
+      writeText(channel, person.getFirstName());
+      put(channel, SEPARATOR);
+      writeText(channel, person.getLastName());
+      put(channel, SEPARATOR);
+      writeDate(channel, person.getBirthdate());
+      put(channel, SEPARATOR);
+      writeText(channel, person.getGender().name());
+      put(channel, SEPARATOR);
+      writeText(channel, address.getStreet());
+      put(channel, SEPARATOR);
+      writeText(channel, address.getStreetNumber());
+      put(channel, SEPARATOR);
+      writeInt(channel, address.getZipCode());
+      put(channel, SEPARATOR);
+      writeText(channel, address.getCity());
+      put(channel, SEPARATOR);
+      writeText(channel, address.getCountry());
+      put(channel, LF);
+    }
+    flush(channel);
+  }
+
+  private void writeText(WritableByteChannel channel, String value) throws IOException {
+    boolean quoted = needsQuotes(value);
+    if (quoted) {
+      put(channel, QUOTE);
+    }
+    int length = value.length();
+    for (int i = 0; i < length; i++) {
+      char c = value.charAt(i);
+      if (c >= 0x80) {
+        encode(channel, value, i, quoted);
+        break;
+      }
+      if (c == QUOTE) {
+        put(channel, QUOTE);
+      }
+      put(channel, (byte) c);
+    }
+    if (quoted) {
+      put(channel, QUOTE);
+    }
+  }
+
+  //slow path for the non ASCII rest of a value
+  private void encode(WritableByteChannel channel, String value, int from, boolean quoted) throws IOException {
+    String rest = value.substring(from);
+    if (quoted) {
+      rest = rest.replace(FileIOConst.CSVQUOTE, FileIOConst.CSVESCAPEDQUOTE);
+    }
+    CharBuffer chars = CharBuffer.wrap(rest);
+    encoder.reset();
+    while (true) {
+      CoderResult result = encoder.encode(chars, out, true);
+      if (result.isOverflow()) {
+        flush(channel);
+      } else if (result.isUnderflow()) {
+        break;
+      } else {
+        result.throwException();
+      }
+    }
+  }
+
+  private boolean needsQuotes(String value) {
+    if (value.isEmpty()) {
+      return false;
+    }
+    if (value.charAt(0) == SPACE || value.charAt(value.length() - 1) == SPACE) {
+      return true; //unquoted fields are trimmed when read
+    }
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == SEPARATOR || c == QUOTE || c == LF || c == CR) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void writeDate(WritableByteChannel channel, LocalDate date) throws IOException {
+    long year = date.getYear();
+    if (year > 9999) {
+      put(channel, PLUS);
+    } else if (year < 0) {
+      put(channel, DASH);
+      year = -year;
+    }
+    writeDigits(channel, year, Math.max(4, digits(year)));
+    put(channel, DASH);
+    writeDigits(channel, date.getMonthValue(), 2);
+    put(channel, DASH);
+    writeDigits(channel, date.getDayOfMonth(), 2);
+  }
+
+  private void writeInt(WritableByteChannel channel, int value) throws IOException {
+    long rest = value; //-Integer.MIN_VALUE does not fit into an int
+    if (rest < 0) {
+      put(channel, DASH);
+      rest = -rest;
+    }
+    writeDigits(channel, rest, digits(rest));
+  }
+
+  private int digits(long value) {
+    int digits = 1;
+    for (long rest = value / 10; rest > 0; rest /= 10) {
+      digits++;
+    }
+    return digits;
+  }
+
+  private void writeDigits(WritableByteChannel channel, long value, int digits) throws IOException {
+    if (out.remaining() < digits) {
+      flush(channel);
+    }
+    int position = out.position();
+    for (int i = digits - 1; i >= 0; i--) {
+      out.put(position + i, (byte) ('0' + value % 10));
+      value /= 10;
+    }
+    out.position(position + digits);
+  }
+
+  private void put(WritableByteChannel channel, byte b) throws IOException {
+    if (!out.hasRemaining()) {
+      flush(channel);
+    }
+    out.put(b);
+  }
+
+  private void flush(WritableByteChannel channel) throws IOException {
+    out.flip();
+    while (out.hasRemaining()) {
+      channel.write(out);
+    }
+    out.clear();
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * JaxbContextHolder.java
+ *
+ * Creator:
+ * 18.10.2026 18:40 agent
+ *
+ * Maintainer:
+ * 18.10.2026 18:40 agent
+ *
+ * Last Modification:
+ * $Id:$
+ *
+ * Copyright (c) 2024 ABACUS Research AG, All Rights Reserved
+ */
+package ch.abacus.fileio.components;
+
+import ch.abacus.common.FileIOConst;
+import ch.abacus.db.entity.Persons;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+
+//the JAXBContext is thread safe and expensive to build, so there is one per process.
+//Marshallers and unmarshallers are not thread safe, a caller takes one from the pool and puts it back afterwards
+public class JaxbContextHolder {
+
+  private static JaxbContextHolder jaxbContextHolder = null;
+  private JAXBContext context;
+  private final Queue<Marshaller> marshallers = new ArrayBlockingQueue<>(FileIOConst.JAXBPOOLSIZE);
+  private final Queue<Unmarshaller> unmarshallers = new ArrayBlockingQueue<>(FileIOConst.JAXBPOOLSIZE);
+
+  public static synchronized JaxbContextHolder getInstance() {
+    if (jaxbContextHolder == null) {
+      jaxbContextHolder = new JaxbContextHolder();
+    }
+    return jaxbContextHolder;
+  }
+
+  //builds the context in the background, so the first export does not have to wait for it
+  public void warmUp() {
+    Thread thread = new Thread(() -> {
+      try {
+        marshallers.offer(createMarshaller());
+        unmarshallers.offer(getContext().createUnmarshaller());
+      } catch (JAXBException ignored) {
+        //the error is reported again on the first real use
+      }
+    }, FileIOConst.JAXBWARMUPTHREAD);
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  public void marshal(Persons persons, OutputStream outputStream) throws JAXBException {
+    Marshaller marshaller = marshallers.poll();
+    if (marshaller == null) {
+      marshaller = createMarshaller();
+    }
+    marshaller.marshal(persons, outputStream);
+    marshallers.offer(marshaller); //dropped when the pool is full
+  }
+
+  public Persons unmarshal(InputStream inputStream) throws JAXBException {
+    Unmarshaller unmarshaller = unmarshallers.poll();
+    if (unmarshaller == null) {
+      unmarshaller = getContext().createUnmarshaller();
+    }
+    Persons persons = (Persons) unmarshaller.unmarshal(inputStream);
+    unmarshallers.offer(unmarshaller);
+    return persons;
+  }
+
+  private Marshaller createMarshaller() throws JAXBException {
+    Marshaller marshaller = getContext().createMarshaller();
+    marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
+    return marshaller;
+  }
+
+  private synchronized JAXBContext getContext() throws JAXBException {
+    if (context == null) {
+      context = JAXBContext.newInstance(Persons.class);
+    }
+    return context;
+  }
+}
@@ -0,0 +1,290 @@
+/*
+ * JsonCodec.java
+ *
+ * Creator:
+ * 18.10.2026 18:55 agent
+ *
+ * Maintainer:
+ * 18.10.2026 18:55 agent
+ *
+ * Last Modification:
+ * $Id:$
+ *
+ * Copyright (c) 2024 ABACUS Research AG, All Rights Reserved
+ */
+package ch.abacus.fileio.components;
+
+import ch.abacus.common.FileIOConst;
+import ch.abacus.db.entity.Address;
+import ch.abacus.db.entity.Gender;
+import ch.abacus.db.entity.Person;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+//reads and writes the person array one element at a time with hand-written adapters, nothing is looked up by reflection.
+//The field names are the ones the reflective Gson mapping used, so older exports can still be read
+public class JsonCodec {
+
+  private static final TypeAdapter<LocalDate> LOCALDATE = new LocalDateTypeAdapter();
+  private static final TypeAdapter<Gender> GENDER = new GenderTypeAdapter();
+  private static final TypeAdapter<Address> ADDRESS = new AddressTypeAdapter();
+  private static final TypeAdapter<Person> PERSON = new PersonTypeAdapter();
+
+  public List<Person> read(Path path) throws IOException {
+    List<Person> persons = new ArrayList<>();
+    read(path, persons::add);
+    return persons;
+  }
+
+  public void read(Path path, Consumer<Person> consumer) throws IOException {
+    try (InputStream inputStream = Files.newInputStream(path)) {
+      read(inputStream, consumer);
+    }
+  }
+
+  public List<Person> read(InputStream inputStream) throws IOException {
+    List<Person> persons = new ArrayList<>();
+    read(inputStream, persons::add);
+    return persons;
+  }
+
+  //the stream is not closed
+  public void read(InputStream inputStream, Consumer<Person> consumer) throws IOException {
+    try {
+      JsonReader reader = new JsonReader(new BufferedReader(new InputStreamReader(inputStream, FileIOConst.JSONCHARSET)));
+      if (reader.peek() == JsonToken.END_DOCUMENT) {
+        return;
+      }
+      reader.beginArray();
+      while (reader.hasNext()) {
+        Person person = PERSON.read(reader);
+        if (person != null) {
+          consumer.accept(person);
+        }
+      }
+      reader.endArray();
+    } catch (JsonParseException | IllegalStateException | DateTimeException e) {
+      throw new IOException(e);
+    }
+  }
+
+  public void write(Iterable<Person> persons, Path path) throws IOException {
+    try (OutputStream outputStream = Files.newOutputStream(path)) {
+      write(persons, outputStream);
+    }
+  }
+
+  //the stream is not closed
+  public void write(Iterable<Person> persons, OutputStream outputStream) throws IOException {
+    JsonWriter writer = new JsonWriter(new BufferedWriter(new OutputStreamWriter(outputStream, FileIOConst.JSONCHARSET)));
+    writer.beginArray();
+    for (Person person : persons) {
+      PERSON.write(writer, person);
+    }
+    writer.endArray();
+    writer.flush();
+  }
+
+  private static String nextString(JsonReader reader) throws IOException {
+    if (reader.peek() == JsonToken.NULL) {
+      reader.nextNull();
+      return null;
+    }
+    return reader.nextString();
+  }
+
+  private static Long nextLong(JsonReader reader) throws IOException {
+    if (reader.peek() == JsonToken.NULL) {
+      reader.nextNull();
+      return null;
+    }
+    return reader.nextLong();
+  }
+
+  private static class PersonTypeAdapter extends TypeAdapter<Person> {
+
+    @Override
+    public void write(JsonWriter writer, Person person) throws IOException {
+      if (person == null) {
+        writer.nullValue();
+        return;
+      }
+      writer.beginObject();
+      if (person.getId_person() != null) {
+        writer.name(FileIOConst.JSONIDPERSON).value(person.getId_person());
+      }
+      writer.name(FileIOConst.FIRSTNAME).value(person.getFirstName());
+      writer.name(FileIOConst.LASTNAME).value(person.getLastName());
+      writer.name(FileIOConst.BIRTHDATE);
+      LOCALDATE.write(writer, person.getBirthdate());
+      writer.name(FileIOConst.GENDER);
+      GENDER.write(writer, person.getGender());
+      writer.name(FileIOConst.JSONADDRESS);
+      ADDRESS.write(writer, person.getAddress());
+      writer.endObject();
+    }
+
+    @Override
+    public Person read(JsonReader reader) throws IOException {
+      if (reader.peek() == JsonToken.NULL) {
+        reader.nextNull();
+        return null;
+      }
+      Long id = null;
+      String firstname = null;
+      String lastname = null;
+      LocalDate birthdate = null;
+      Gender gender = null;
+      Address address = null;
+      reader.beginObject();
+      while (reader.hasNext()) {
+        switch (reader.nextName()) {
+          case FileIOConst.JSONIDPERSON:
+            id = nextLong(reader);
+            break;
+          case FileIOConst.FIRSTNAME:
+            firstname = nextString(reader);
+            break;
+          case FileIOConst.LASTNAME:
+            lastname = nextString(reader);
+            break;
+          case FileIOConst.BIRTHDATE:
+            birthdate = LOCALDATE.read(reader);
+            break;
+          case FileIOConst.GENDER:
+            gender = GENDER.read(reader);
+            break;
+          case FileIOConst.JSONADDRESS:
+            address = ADDRESS.read(reader);
+            break;
+          default:
+            reader.skipValue();
+        }
+      }
+      reader.endObject();
+      return new Person(id, address, firstname, lastname, birthdate, gender);
+    }
+  }
+
+  private static class AddressTypeAdapter extends TypeAdapter<Address> {
+
+    @Override
+    public void write(JsonWriter writer, Address address) throws IOException {
+      if (address == null) {
+        writer.nullValue();
+        return;
+      }
+      writer.beginObject();
+      if (address.getId_address() != null) {
+        writer.name(FileIOConst.JSONIDADDRESS).value(address.getId_address());
+      }
+      writer.name(FileIOConst.STREET).value(address.getStreet());
+      writer.name(FileIOConst.STREETNUMBER).value(address.getStreetNumber());
+      writer.name(FileIOConst.ZIPCODE).value(address.getZipCode());
+      writer.name(FileIOConst.CITY).value(address.getCity());
+      writer.name(FileIOConst.COUNTRY).value(address.getCountry());
+      writer.endObject();
+    }
+
+    @Override
+    public Address read(JsonReader reader) throws IOException {
+      if (reader.peek() == JsonToken.NULL) {
+        reader.nextNull();
+        return null;
+      }
+      Long id = null;
+      String street = null;
+      String streetnumber = null;
+      int zipcode = 0;
+      String city = null;
+      String country = null;
+      reader.beginObject();
+      while (reader.hasNext()) {
+        switch (reader.nextName()) {
+          case FileIOConst.JSONIDADDRESS:
+            id = nextLong(reader);
+            break;
+          case FileIOConst.STREET:
+            street = nextString(reader);
+            break;
+          case FileIOConst.STREETNUMBER:
+            streetnumber = nextString(reader);
+            break;
+          case FileIOConst.ZIPCODE:
+            zipcode = reader.nextInt();
+            break;
+          case FileIOConst.CITY:
+            city = nextString(reader);
+            break;
+          case FileIOConst.COUNTRY:
+            country = nextString(reader);
+            break;
+          default:
+            reader.skipValue();
+        }
+      }
+      reader.endObject();
+      return new Address(id, street, streetnumber, zipcode, city, country);
+    }
+  }
+
+  //yyyy-MM-dd, LocalDate.toString and LocalDate.parse use the same format without a formatter
+  private static class LocalDateTypeAdapter extends TypeAdapter<LocalDate> {
+
+    @Override
+    public void write(JsonWriter writer, LocalDate date) throws IOException {
+      if (date == null) {
+        writer.nullValue();
+      } else {
+        writer.value(date.toString());
+      }
+    }
+
+    @Override
+    public LocalDate read(JsonReader reader) throws IOException {
+      String date = nextString(reader);
+      return date == null ? null : LocalDate.parse(date);
+    }
+  }
+
+  private static class GenderTypeAdapter extends TypeAdapter<Gender> {
+
+    @Override
+    public void write(JsonWriter writer, Gender gender) throws IOException {
+      if (gender == null) {
+        writer.nullValue();
+      } else {
+        writer.value(gender.name());
+      }
+    }
+
+    @Override
+    public Gender read(JsonReader reader) throws IOException {
+      String gender = nextString(reader);
+      for (Gender value : Gender.values()) {
+        if (value.name().equals(gender)) {
+          return value;
+        }
+      }
+      return null; //unknown constants are dropped like the reflective mapping did
+    }
+  }
+}
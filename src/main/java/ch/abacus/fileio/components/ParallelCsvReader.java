@@ -0,0 +1,157 @@
+/*
+ * ParallelCsvReader.java
+ *
+ * Creator:
+ * 18.10.2026 18:05 agent
+ *
+ * Maintainer:
+ * 18.10.2026 18:05 agent
+ *
+ * Last Modification:
+ * $Id:$
+ *
+ * Copyright (c) 2024 ABACUS Research AG, All Rights Reserved
+ */
+package ch.abacus.fileio.components;
+
+import ch.abacus.common.FileIOConst;
+import ch.abacus.db.entity.Person;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+//splits the file into one byte range per thread, the ranges end on record boundaries and are parsed on a ForkJoinPool.
+//The ranges are fixed up front and not split further, records are evenly sized so the ranges take about the same time
+public class ParallelCsvReader {
+
+  private final int parallelism;
+  private final long minRangeSize;
+  private final ForkJoinPool pool;
+
+  public ParallelCsvReader() {
+    this(Runtime.getRuntime().availableProcessors(), FileIOConst.CSVMINRANGESIZE, ForkJoinPool.commonPool());
+  }
+
+  //the pool is kept for all reads of this reader, its idle threads end on their own
+  public ParallelCsvReader(int parallelism, long minRangeSize) {
+    this(parallelism, minRangeSize, new ForkJoinPool(parallelism));
+  }
+
+  private ParallelCsvReader(int parallelism, long minRangeSize, ForkJoinPool pool) {
+    this.parallelism = parallelism;
+    this.minRangeSize = minRangeSize;
+    this.pool = pool;
+  }
+
+  //the persons are returned in file order
+  public List<Person> read(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      int ranges = (int) Math.max(1, Math.min(parallelism, size / Math.max(1, minRangeSize)));
+      if (ranges == 1) {
+        return new CsvCodec().read(channel, 0, size);
+      }
+
+      try {
+        long[] bounds = recordBounds(channel, size, ranges);
+        List<CsvCodec> codecs = new ArrayList<>();
+        List<Callable<List<Person>>> tasks = new ArrayList<>();
+        for (int i = 0; i < ranges; i++) {
+          long from = bounds[i];
+          long to = bounds[i + 1];
+          CsvCodec codec = new CsvCodec();
+          codecs.add(codec);
+          tasks.add(() -> codec.read(channel, from, to));
+        }
+        List<Future<List<Person>>> results = pool.invokeAll(tasks);
+
+        //a quote inside an unquoted field is kept as text but breaks the quote parity the split relies on
+        for (CsvCodec codec : codecs) {
+          if (codec.hasStrayQuotes()) {
+            return new CsvCodec().read(channel, 0, size);
+          }
+        }
+        List<Person> persons = new ArrayList<>();
+        for (Future<List<Person>> range : results) {
+          persons.addAll(range.get());
+        }
+        return persons;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException(e);
+      } catch (ExecutionException e) {
+        throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+      }
+    }
+  }
+
+  //a line break ends a record only if an even number of quotes precedes it, so the quotes of every
+  //range are counted in parallel first and each split point then moves forward to the next real record end
+  private long[] recordBounds(FileChannel channel, long size, int ranges)
+      throws IOException, InterruptedException, ExecutionException {
+    long[] nominal = new long[ranges + 1];
+    for (int i = 0; i <= ranges; i++) {
+      nominal[i] = size * i / ranges;
+    }
+
+    List<Callable<Long>> counts = new ArrayList<>();
+    for (int i = 0; i < ranges; i++) {
+      long from = nominal[i];
+      long to = nominal[i + 1];
+      counts.add(() -> countQuotes(channel, from, to));
+    }
+    List<Future<Long>> quoteCounts = pool.invokeAll(counts);
+
+    long[] bounds = new long[ranges + 1];
+    bounds[ranges] = size;
+    long quotes = 0;
+    for (int i = 1; i < ranges; i++) {
+      quotes += quoteCounts.get(i - 1).get();
+      if (bounds[i - 1] >= nominal[i]) {
+        bounds[i] = bounds[i - 1]; //the previous record reaches past this range, it stays empty
+      } else {
+        bounds[i] = nextRecordStart(channel, nominal[i], size, quotes % 2 == 1);
+      }
+    }
+    return bounds;
+  }
+
+  private long countQuotes(FileChannel channel, long from, long to) throws IOException {
+    long quotes = 0;
+    for (long position = from; position < to; position += FileIOConst.CSVMAPWINDOW) {
+      int length = (int) Math.min(FileIOConst.CSVMAPWINDOW, to - position);
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+      for (int i = 0; i < length; i++) {
+        if (buffer.get(i) == '"') {
+          quotes++;
+        }
+      }
+    }
+    return quotes;
+  }
+
+  private long nextRecordStart(FileChannel channel, long from, long size, boolean inQuotes) throws IOException {
+    for (long position = from; position < size; position += FileIOConst.CSVMAPWINDOW) {
+      int length = (int) Math.min(FileIOConst.CSVMAPWINDOW, size - position);
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+      for (int i = 0; i < length; i++) {
+        byte b = buffer.get(i);
+        if (b == '"') {
+          inQuotes = !inQuotes;
+        } else if (b == '\n' && !inQuotes) {
+          return position + i + 1;
+        }
+      }
+    }
+    return size;
+  }
+}
@@ -0,0 +1,247 @@
+/*
+ * SnapshotCodec.java
+ *
+ * Creator:
+ * 18.10.2026 21:40 agent
+ *
+ * Maintainer:
+ * 18.10.2026 21:40 agent
+ *
+ * Last Modification:
+ * $Id:$
+ *
+ * Copyright (c) 2024 ABACUS Research AG, All Rights Reserved
+ */
+package ch.abacus.fileio.components;
+
+import ch.abacus.common.FileIOConst;
+import ch.abacus.db.entity.Address;
+import ch.abacus.db.entity.Gender;
+import ch.abacus.db.entity.Person;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+//binary snapshot of the persons:
+//  header      magic, version, number of dictionary entries, number of persons
+//  dictionary  strings used by streets, cities and countries, every distinct value once
+//  persons     firstname, lastname, birthdate as epoch day, gender byte, address flag,
+//              street index, streetnumber, zipcode, city index, country index
+//strings are an int byte length (-1 for null) followed by UTF-8, a missing date is Integer.MIN_VALUE.
+//An instance reuses its buffers and must not be shared between threads
+public class SnapshotCodec {
+
+  private static final int NULL = -1;
+  private static final int NODATE = Integer.MIN_VALUE;
+  private static final byte MALE = 0;
+  private static final byte FEMALE = 1;
+  private static final byte NOGENDER = -1;
+  private static final byte NOADDRESS = 0;
+  private static final byte ADDRESS = 1;
+  private static final int MINPERSONSIZE = 14; //two null strings, date, gender and address flag
+
+  private final ByteBuffer out;
+  private byte[] text = new byte[256]; //bytes of the string being decoded
+
+  public SnapshotCodec() {
+    this(FileIOConst.SNAPSHOTWRITEBUFFER);
+  }
+
+  public SnapshotCodec(int writeBuffer) {
+    this.out = ByteBuffer.allocate(writeBuffer);
+  }
+
+  public List<Person> read(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+        throw new IOException(FileIOConst.SNAPSHOTTOOLARGE + size);
+      }
+      return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+    }
+  }
+
+  //for streams that can't be mapped, e.g. compressed files
+  public List<Person> read(InputStream inputStream) throws IOException {
+    return read(ByteBuffer.wrap(inputStream.readAllBytes()));
+  }
+
+  private List<Person> read(ByteBuffer buffer) throws IOException {
+    try {
+      if (buffer.getInt() != FileIOConst.SNAPSHOTMAGIC) {
+        throw new IOException(FileIOConst.SNAPSHOTNOSNAPSHOT);
+      }
+      short version = buffer.getShort();
+      if (version != FileIOConst.SNAPSHOTVERSION) {
+        throw new IOException(FileIOConst.SNAPSHOTUNSUPPORTEDVERSION + version);
+      }
+      int entries = buffer.getInt();
+      int count = buffer.getInt();
+      if (entries > buffer.remaining() / 4) { //every entry has at least its length, a broken count must not allocate
+        throw new IOException(FileIOConst.SNAPSHOTTRUNCATED);
+      }
+      String[] dictionary = new String[entries];
+      for (int i = 0; i < dictionary.length; i++) {
+        dictionary[i] = getString(buffer);
+      }
+
+      List<Person> persons = new ArrayList<>(Math.min(count, buffer.remaining() / MINPERSONSIZE)); //a broken count must not allocate
+      for (int i = 0; i < count; i++) {
+        String firstname = getString(buffer);
+        String lastname = getString(buffer);
+        int epochDay = buffer.getInt();
+        byte gender = buffer.get();
+        Address address = null;
+        if (buffer.get() == ADDRESS) {
+          String street = entry(dictionary, buffer.getInt());
+          String streetnumber = getString(buffer);
+          int zipcode = buffer.getInt();
+          String city = entry(dictionary, buffer.getInt());
+          String country = entry(dictionary, buffer.getInt());
+          address = new Address(street, streetnumber, zipcode, city, country);
+        }
+        persons.add(new Person(firstname, lastname, epochDay == NODATE ? null : LocalDate.ofEpochDay(epochDay),
+                               gender == NOGENDER ? null : gender == MALE ? Gender.MALE : Gender.FEMALE, address));
+      }
+      return persons;
+    } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException | IllegalArgumentException e) {
+      throw new IOException(FileIOConst.SNAPSHOTTRUNCATED, e);
+    }
+  }
+
+  private String entry(String[] dictionary, int index) {
+    return index == NULL ? null : dictionary[index];
+  }
+
+  private String getString(ByteBuffer buffer) throws IOException {
+    int length = buffer.getInt();
+    if (length == NULL) {
+      return null;
+    }
+    if (length < NULL || length > buffer.remaining()) { //a broken length must not allocate
+      throw new IOException(FileIOConst.SNAPSHOTTRUNCATED);
+    }
+    if (length > text.length) {
+      text = new byte[Math.max(length, text.length * 2)];
+    }
+    buffer.get(text, 0, length);
+    return new String(text, 0, length, FileIOConst.SNAPSHOTCHARSET);
+  }
+
+  public void write(List<Person> persons, Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                StandardOpenOption.TRUNCATE_EXISTING)) {
+      write(persons, channel);
+    }
+  }
+
+  //the stream is not closed
+  public void write(List<Person> persons, OutputStream outputStream) throws IOException {
+    write(persons, Channels.newChannel(outputStream));
+    outputStream.flush();
+  }
+
+  private void write(List<Person> persons, WritableByteChannel channel) throws IOException {
+    //the dictionary comes first, so the reader has it before the first person refers to it
+    Map<String, Integer> indexes = new HashMap<>();
+    List<String> dictionary = new ArrayList<>();
+    for (Person person : persons) {
+      Address address = person.getAddress();
+      if (address != null) {
+        index(indexes, dictionary, address.getStreet());
+        index(indexes, dictionary, address.getCity());
+        index(indexes, dictionary, address.getCountry());
+      }
+    }
+
+    out.clear();
+    ensure(channel, 14);
+    out.putInt(FileIOConst.SNAPSHOTMAGIC);
+    out.putShort(FileIOConst.SNAPSHOTVERSION);
+    out.putInt(dictionary.size());
+    out.putInt(persons.size());
+    for (String entry : dictionary) {
+      putString(channel, entry);
+    }
+
+    for (Person person : persons) {
+      putString(channel, person.getFirstName());
+      putString(channel, person.getLastName());
+      ensure(channel, 6);
+      out.putInt(person.getBirthdate() == null ? NODATE : (int) person.getBirthdate().toEpochDay());
+      out.put(person.getGender() == null ? NOGENDER : person.getGender() == Gender.MALE ? MALE : FEMALE);
+      Address address = person.getAddress();
+      if (address == null) {
+        out.put(NOADDRESS);
+        continue;
+      }
+      out.put(ADDRESS);
+      ensure(channel, 4);
+      out.putInt(indexOf(indexes, address.getStreet()));
+      putString(channel, address.getStreetNumber());
+      ensure(channel, 12);
+      out.putInt(address.getZipCode());
+      out.putInt(indexOf(indexes, address.getCity()));
+      out.putInt(indexOf(indexes, address.getCountry()));
+    }
+    flush(channel);
+  }
+
+  private void index(Map<String, Integer> indexes, List<String> dictionary, String value) {
+    if (value != null && indexes.putIfAbsent(value, dictionary.size()) == null) {
+      dictionary.add(value);
+    }
+  }
+
+  private int indexOf(Map<String, Integer> indexes, String value) {
+    return value == null ? NULL : indexes.get(value);
+  }
+
+  private void putString(WritableByteChannel channel, String value) throws IOException {
+    ensure(channel, 4);
+    if (value == null) {
+      out.putInt(NULL);
+      return;
+    }
+    byte[] bytes = value.getBytes(FileIOConst.SNAPSHOTCHARSET);
+    out.putInt(bytes.length);
+    if (bytes.length > out.capacity()) {
+      flush(channel);
+      write(channel, ByteBuffer.wrap(bytes));
+    } else {
+      ensure(channel, bytes.length);
+      out.put(bytes);
+    }
+  }
+
+  private void ensure(WritableByteChannel channel, int bytes) throws IOException {
+    if (out.remaining() < bytes) {
+      flush(channel);
+    }
+  }
+
+  private void flush(WritableByteChannel channel) throws IOException {
+    out.flip();
+    write(channel, out);
+    out.clear();
+  }
+
+  private void write(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+}
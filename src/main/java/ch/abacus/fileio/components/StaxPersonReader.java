@@ -0,0 +1,210 @@
+/*
+ * StaxPersonReader.java
+ *
+ * Creator:
+ * 18.10.2026 19:40 agent
+ *
+ * Maintainer:
+ * 18.10.2026 19:40 agent
+ *
+ * Last Modification:
+ * $Id:$
+ *
+ * Copyright (c) 2024 ABACUS Research AG, All Rights Reserved
+ */
+package ch.abacus.fileio.components;
+
+import ch.abacus.common.FileIOConst;
+import ch.abacus.db.entity.Address;
+import ch.abacus.db.entity.Gender;
+import ch.abacus.db.entity.Person;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+//pull parser for the Persons document, every person is handed to the consumer as soon as its end tag is read.
+//The text of a field may arrive in several events, it is collected in one reused buffer.
+//An instance keeps the state of the current person and must not be shared between threads
+public class StaxPersonReader {
+
+  private static final int NONE = -1;
+  private static final int PERSON = 0;
+  private static final int FIRSTNAME = 1;
+  private static final int LASTNAME = 2;
+  private static final int BIRTHDATE = 3;
+  private static final int GENDER = 4;
+  private static final int STREET = 5;
+  private static final int STREETNUMBER = 6;
+  private static final int ZIPCODE = 7;
+  private static final int CITY = 8;
+  private static final int COUNTRY = 9;
+
+  private static final Map<String, Integer> ELEMENTS = new HashMap<>();
+  private static final XMLInputFactory FACTORY = XMLInputFactory.newInstance();
+
+  static {
+    ELEMENTS.put(FileIOConst.PERSON, PERSON);
+    ELEMENTS.put(FileIOConst.FIRSTNAME, FIRSTNAME);
+    ELEMENTS.put(FileIOConst.LASTNAME, LASTNAME);
+    ELEMENTS.put(FileIOConst.BIRTHDATE, BIRTHDATE);
+    ELEMENTS.put(FileIOConst.GENDER, GENDER);
+    ELEMENTS.put(FileIOConst.STREET, STREET);
+    ELEMENTS.put(FileIOConst.STREETNUMBER, STREETNUMBER);
+    ELEMENTS.put(FileIOConst.ZIPCODE, ZIPCODE);
+    ELEMENTS.put(FileIOConst.CITY, CITY);
+    ELEMENTS.put(FileIOConst.COUNTRY, COUNTRY);
+    FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+  }
+
+  private final StringBuilder text = new StringBuilder(64);
+  private int field = NONE;
+
+  private String firstname;
+  private String lastname;
+  private LocalDate birthdate;
+  private Gender gender;
+  private String street;
+  private String streetnumber;
+  private int zipcode;
+  private String city;
+  private String country;
+
+  public void read(InputStream inputStream, Consumer<Person> consumer) throws IOException {
+    XMLStreamReader reader = null;
+    try {
+      reader = FACTORY.createXMLStreamReader(inputStream);
+      while (reader.hasNext()) {
+        switch (reader.next()) {
+          case XMLStreamConstants.START_ELEMENT:
+            field = element(reader);
+            if (field == PERSON) {
+              clear();
+            }
+            text.setLength(0);
+            break;
+          case XMLStreamConstants.CHARACTERS:
+          case XMLStreamConstants.CDATA:
+            if (field > PERSON) {
+              text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+            }
+            break;
+          case XMLStreamConstants.END_ELEMENT:
+            if (field > PERSON) {
+              setField();
+            } else if (element(reader) == PERSON) {
+              consumer.accept(new Person(firstname, lastname, birthdate, gender, new Address(street, streetnumber, zipcode, city, country)));
+            }
+            field = NONE;
+            break;
+          default:
+            break;
+        }
+      }
+    } catch (XMLStreamException | NumberFormatException | DateTimeException e) {
+      throw new IOException(e);
+    } finally {
+      if (reader != null) {
+        try {
+          reader.close();
+        } catch (XMLStreamException ignored) {
+          //the stream itself is closed by the caller
+        }
+      }
+    }
+  }
+
+  private int element(XMLStreamReader reader) {
+    Integer element = ELEMENTS.get(reader.getLocalName());
+    return element == null ? NONE : element;
+  }
+
+  private void clear() {
+    firstname = null;
+    lastname = null;
+    birthdate = null;
+    gender = null;
+    street = null;
+    streetnumber = null;
+    zipcode = 0;
+    city = null;
+    country = null;
+  }
+
+  //the value is trimmed like before, an empty element leaves the field unset
+  private void setField() {
+    int start = 0;
+    int end = text.length();
+    while (start < end && text.charAt(start) <= ' ') {
+      start++;
+    }
+    while (end > start && text.charAt(end - 1) <= ' ') {
+      end--;
+    }
+    if (start == end) {
+      return;
+    }
+    switch (field) {
+      case FIRSTNAME:
+        firstname = text.substring(start, end);
+        break;
+      case LASTNAME:
+        lastname = text.substring(start, end);
+        break;
+      case BIRTHDATE:
+        birthdate = parseDate(start, end);
+        break;
+      case GENDER:
+        gender = isMale(start, end) ? Gender.MALE : Gender.FEMALE;
+        break;
+      case STREET:
+        street = text.substring(start, end);
+        break;
+      case STREETNUMBER:
+        streetnumber = text.substring(start, end);
+        break;
+      case ZIPCODE:
+        zipcode = Integer.parseInt(text, start, end, 10);
+        break;
+      case CITY:
+        city = text.substring(start, end);
+        break;
+      case COUNTRY:
+        country = text.substring(start, end);
+        break;
+      default:
+        break;
+    }
+  }
+
+  //yyyy-MM-dd without a String in between
+  private LocalDate parseDate(int start, int end) {
+    if (end - start != 10 || text.charAt(start + 4) != '-' || text.charAt(start + 7) != '-') {
+      return LocalDate.parse(text.subSequence(start, end));
+    }
+    return LocalDate.of(Integer.parseInt(text, start, start + 4, 10),
+                        Integer.parseInt(text, start + 5, start + 7, 10),
+                        Integer.parseInt(text, start + 8, start + 10, 10));
+  }
+
+  private boolean isMale(int start, int end) {
+    if (end - start != FileIOConst.MALE.length()) {
+      return false;
+    }
+    for (int i = start; i < end; i++) {
+      if (Character.toLowerCase(text.charAt(i)) != FileIOConst.MALE.charAt(i - start)) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -15,6 +15,7 @@
 package ch.abacus.view;
 
 import ch.abacus.db.entity.Person;
+import ch.abacus.db.entity.PersonSummary;
 import ch.abacus.view.components.PersonDetailPanel;
 
 import javax.swing.JTable;
@@ -30,11 +31,13 @@ public interface View extends Serializable {
 
   void updateTableAdd(Person p);
 
-  void updateTableModify(int index);
+  void updateTableModify(int index, Person p);
 
   void updateTableRemove(Person p);
 
-  void repaintTable(List<Person> people);
+  void repaintTable(List<PersonSummary> people);
+
+  Long getPersonIdAt(int row);
 
   void selectRow(int index);
 
@@ -18,6 +18,7 @@ import ch.abacus.common.UITextConst;
 import ch.abacus.common.ViewConst;
 import ch.abacus.controller.Controller;
 import ch.abacus.db.entity.Person;
+import ch.abacus.db.entity.PersonSummary;
 import ch.abacus.view.components.DefaultPersonTableModel;
 import ch.abacus.view.components.PersonDetailPanel;
 
@@ -136,7 +137,7 @@ public class ViewImpl extends JFrame implements View {
   }
 
   private JTable createTable(ListSelectionListener selectionListener) {
-    List<Person> personList = controller.getAllPeople();
+    List<PersonSummary> personList = controller.getPersonSummaries();
     model = new DefaultPersonTableModel(personList);
     table = new JTable(model);
     addSelectionListeners(selectionListener, table);
@@ -149,8 +150,7 @@ public class ViewImpl extends JFrame implements View {
   }
 
   @Override
-  public void updateTableModify(int index) {
-    Person p = controller.getAllPeople().get(index);
+  public void updateTableModify(int index, Person p) {
     model.setValueAt(p.getFirstName(), index, 0);
     model.setValueAt(p.getLastName(), index, 1);
   }
@@ -161,10 +161,15 @@ public class ViewImpl extends JFrame implements View {
   }
 
   @Override
-  public void repaintTable(List<Person> people) {
+  public void repaintTable(List<PersonSummary> people) {
     model.repaintTable(people);
   }
 
+  @Override
+  public Long getPersonIdAt(int row) {
+    return model.getIdAt(row);
+  }
+
   @Override
   public void selectRow(int index) {
     table.setRowSelectionInterval(index, index);
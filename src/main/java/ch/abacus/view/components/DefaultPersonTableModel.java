@@ -16,6 +16,7 @@ package ch.abacus.view.components;
 
 import ch.abacus.common.UITextConst;
 import ch.abacus.db.entity.Person;
+import ch.abacus.db.entity.PersonSummary;
 
 import javax.swing.table.AbstractTableModel;
 import java.util.ArrayList;
@@ -23,20 +24,20 @@ import java.util.List;
 
 public class DefaultPersonTableModel extends AbstractTableModel {
 
-  private transient List<Person> data;
+  private transient List<PersonSummary> data;
 
-  public DefaultPersonTableModel(List<Person> people) {
+  public DefaultPersonTableModel(List<PersonSummary> people) {
     this.data = new ArrayList<>();
     this.addPerson(people);
   }
 
-  public void addPerson(List<Person> p) {
+  public void addPerson(List<PersonSummary> p) {
     data.addAll(p);
     fireTableDataChanged();
   }
 
   public void addPerson(Person p) {
-    data.add(p);
+    data.add(PersonSummary.of(p));
     fireTableRowsInserted(getRowCount() - 1, getRowCount() - 1);
   }
 
@@ -73,27 +74,26 @@ public class DefaultPersonTableModel extends AbstractTableModel {
   }
 
   private int getIndexFromPerson(Person p) {
-    for (Person person : data) {
-      if (person.getFirstName().equals(p.getFirstName()) && person.getLastName().equals(p.getLastName())
-          && person.getGender().equals(p.getGender()) && person.getBirthdate().equals(p.getBirthdate())
-          && person.getAddress().getStreet().equals(p.getAddress().getStreet())
-          && (person.getAddress().getZipCode() == p.getAddress().getZipCode())
-          && person.getAddress().getCity().equals(p.getAddress().getCity())
-          && person.getAddress().getCountry().equals(p.getAddress().getCountry())) {
-        return data.indexOf(person);
+    for (int i = 0; i < data.size(); i++) {
+      if (data.get(i).getId_person().equals(p.getId_person())) {
+        return i;
       }
     }
     return -1;
   }
 
-  public void repaintTable(List<Person> people) {
+  public Long getIdAt(int row) {
+    return data.get(row).getId_person();
+  }
+
+  public void repaintTable(List<PersonSummary> people) {
     data = people;
     fireTableDataChanged();
   }
 
   @Override
   public Object getValueAt(int row, int column) {
-    Person person = data.get(row);
+    PersonSummary person = data.get(row);
     switch (column) {
       case 0:
         return person.getFirstName();
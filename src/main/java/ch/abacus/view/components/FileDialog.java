@@ -47,7 +47,8 @@ public class FileDialog extends JDialog {
   private JPanel createFileChooser(ActionListener listener) {
     JPanel fileChooserPanel = new JPanel(new BorderLayout());
 
-    FileNameExtensionFilter filter = new FileNameExtensionFilter(UITextConst.XMLCSVJSON, UITextConst.XML, UITextConst.CSV, UITextConst.JSON);
+    FileNameExtensionFilter filter = new FileNameExtensionFilter(UITextConst.XMLCSVJSON, UITextConst.XML, UITextConst.CSV, UITextConst.JSON,
+                                                                 UITextConst.SNAPSHOT, UITextConst.GZ, UITextConst.DEFLATE);
     fileChooser = new JFileChooser();
     fileChooser.setFileSelectionMode(JFileChooser.FILES_ONLY);
     addActionListener(fileChooser, listener);
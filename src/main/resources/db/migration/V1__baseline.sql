@@ -0,0 +1,19 @@
+-- tables as created by script.sql before versioned migrations existed
+CREATE TABLE IF NOT EXISTS address (
+    id_address INT AUTO_INCREMENT PRIMARY KEY,
+    street VARCHAR(64) NOT NULL,
+    streetnumber VARCHAR(8) NOT NULL,
+    postalcode INT NOT NULL,
+    city VARCHAR(32) NOT NULL,
+    country VARCHAR(32) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS person (
+    id_person INT AUTO_INCREMENT PRIMARY KEY,
+    fk_address INT NOT NULL,
+    firstname VARCHAR(128) NOT NULL,
+    lastname VARCHAR(128) NOT NULL,
+    birthdate DATE NOT NULL,
+    gender ENUM('male', 'female') NOT NULL,
+    FOREIGN KEY (fk_address) REFERENCES address(id_address)
+);
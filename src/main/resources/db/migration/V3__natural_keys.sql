@@ -0,0 +1,17 @@
+-- the baseline allowed duplicate rows, they are merged into the one with the lowest id before the unique keys are added
+ALTER TABLE address ADD COLUMN natural_key BINARY(16) AS (UNHEX(MD5(LOWER(CONCAT_WS(CHAR(31 USING utf8mb4), street, streetnumber, postalcode, city, country))))) STORED;
+UPDATE person p
+    JOIN address a ON a.id_address = p.fk_address
+    JOIN (SELECT natural_key, MIN(id_address) AS kept FROM address GROUP BY natural_key) k ON k.natural_key = a.natural_key
+    SET p.fk_address = k.kept
+    WHERE a.id_address <> k.kept;
+DELETE a FROM address a
+    JOIN (SELECT natural_key, MIN(id_address) AS kept FROM address GROUP BY natural_key) k ON k.natural_key = a.natural_key
+    WHERE a.id_address <> k.kept;
+ALTER TABLE address ADD UNIQUE KEY uq_address_natural_key (natural_key);
+-- fk_address is part of the key, so persons only become duplicates after their addresses were merged
+ALTER TABLE person ADD COLUMN natural_key BINARY(16) AS (UNHEX(MD5(LOWER(CONCAT_WS(CHAR(31 USING utf8mb4), firstname, lastname, birthdate, gender, fk_address))))) STORED;
+DELETE p FROM person p
+    JOIN (SELECT natural_key, MIN(id_person) AS kept FROM person GROUP BY natural_key) k ON k.natural_key = p.natural_key
+    WHERE p.id_person <> k.kept;
+ALTER TABLE person ADD UNIQUE KEY uq_person_natural_key (natural_key);
@@ -0,0 +1,6 @@
+-- person lookups by name, the id is part of every secondary index so they are covered. The bulk imports match on natural_key
+CREATE INDEX idx_person_lookup ON person (lastname, firstname, birthdate, gender);
+-- USAGECOUNT_FROM_PERSON and the orphan address cleanup
+CREATE INDEX idx_person_fk_address ON person (fk_address);
+-- SELECT_ID_BY_ADDRESS and SELECT_ADDRESS_BY_FIELDS (JPQL)
+CREATE INDEX idx_address_lookup ON address (postalcode, street, streetnumber);
@@ -0,0 +1,8 @@
+-- hi/lo id blocks, see IdAllocator
+CREATE TABLE IF NOT EXISTS id_allocator (
+    name VARCHAR(32) PRIMARY KEY,
+    next_val BIGINT NOT NULL
+);
+-- continues after the ids AUTO_INCREMENT has handed out so far
+INSERT IGNORE INTO id_allocator (name, next_val) SELECT 'person', COALESCE(MAX(id_person), 0) + 1 FROM person;
+INSERT IGNORE INTO id_allocator (name, next_val) SELECT 'address', COALESCE(MAX(id_address), 0) + 1 FROM address;
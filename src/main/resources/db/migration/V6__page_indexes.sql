@@ -0,0 +1,4 @@
+-- findPersonsPage, a page after the anchor (col, id_person) is a range scan in index order without a filesort
+CREATE INDEX idx_person_firstname_page ON person (firstname, id_person);
+CREATE INDEX idx_person_lastname_page ON person (lastname, id_person);
+CREATE INDEX idx_person_birthdate_page ON person (birthdate, id_person);
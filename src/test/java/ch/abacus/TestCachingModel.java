@@ -0,0 +1,210 @@
+/*
+ * TestCachingModel.java
+ *
+ * Creator:
+ * 18.10.2026 14:22 agent
+ *
+ * Maintainer:
+ * 18.10.2026 14:22 agent
+ *
+ * Last Modification:
+ * $Id:$
+ *
+ * Copyright (c) 2024 ABACUS Research AG, All Rights Reserved
+ */
+package ch.abacus;
+
+import ch.abacus.common.SortKey;
+import ch.abacus.components.GetAddresses;
+import ch.abacus.components.GetPeople;
+import ch.abacus.db.CachingModel;
+import ch.abacus.db.Model;
+import ch.abacus.db.entity.Gender;
+import ch.abacus.db.entity.Person;
+import ch.abacus.db.entity.PersonSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TestCachingModel {
+
+  private final Consumer<Throwable> consumer = throwable -> {
+    throw new RuntimeException(throwable);
+  };
+  private final GetPeople getPeople = new GetPeople();
+  private final GetAddresses getAddresses = new GetAddresses();
+  private CountingModel countingModel;
+  private CachingModel cachingModel;
+
+  @BeforeEach
+  void before() {
+    countingModel = new CountingModel();
+    countingModel.people.add(new Person(1L, getAddresses.getAddress(), "Josia", "Schweizer", LocalDate.of(2007, 9, 18), Gender.MALE));
+    countingModel.people.add(new Person(2L, getAddresses.getAddress2(), "hund", "hundename", LocalDate.of(2000, 9, 19), Gender.FEMALE));
+    countingModel.people.add(new Person(3L, getAddresses.getAddress3(), "katze", "katzename", LocalDate.of(2000, 1, 1), Gender.MALE));
+    cachingModel = new CachingModel(countingModel, 2, 2);
+  }
+
+  @Test
+  void testFindAllPersonIsLoadedOnce() throws Throwable {
+    cachingModel.findAllPerson(consumer);
+    List<Person> people = cachingModel.findAllPerson(consumer);
+
+    assertEquals(3, people.size());
+    assertEquals(1, countingModel.findAllCalls);
+    assertEquals(1, cachingModel.getHits());
+    assertEquals(1, cachingModel.getMisses());
+  }
+
+  @Test
+  void testReturnedListIsACopy() throws Throwable {
+    cachingModel.findAllPerson(consumer).clear();
+
+    assertEquals(3, cachingModel.findAllPerson(consumer).size());
+  }
+
+  @Test
+  void testGetPersonByIdServedFromListing() throws Throwable {
+    cachingModel.findAllPerson(consumer);
+    Optional<Person> person = cachingModel.getPersonById(3L, consumer);
+
+    assertTrue(person.isPresent());
+    assertEquals(0, countingModel.getByIdCalls);
+  }
+
+  @Test
+  void testLruEviction() throws Throwable {
+    cachingModel.getPersonById(1L, consumer);
+    cachingModel.getPersonById(2L, consumer);
+    cachingModel.getPersonById(1L, consumer);
+    cachingModel.getPersonById(3L, consumer); //evicts 2, the least recently used
+    cachingModel.getPersonById(1L, consumer);
+    cachingModel.getPersonById(2L, consumer);
+
+    assertEquals(4, countingModel.getByIdCalls);
+    assertEquals(2, cachingModel.getEvictions());
+    assertEquals(2, cachingModel.getSize());
+  }
+
+  @Test
+  void testWritesInvalidate() throws Throwable {
+    cachingModel.findAllPerson(consumer);
+    cachingModel.findPersonsPage(null, 2, SortKey.ID, consumer);
+
+    cachingModel.delete(1L, consumer);
+    assertEquals(2, cachingModel.findAllPerson(consumer).size());
+    assertTrue(cachingModel.getPersonById(1L, consumer).isEmpty());
+
+    cachingModel.savePerson(getPeople.getPerson(getAddresses.getAddress()), consumer);
+    cachingModel.findAllPerson(consumer);
+    cachingModel.findPersonsPage(null, 2, SortKey.ID, consumer);
+
+    assertEquals(3, countingModel.findAllCalls);
+    assertEquals(2, countingModel.pageCalls);
+  }
+
+  @Test
+  void testReturnedPersonsAreCopies() throws Throwable {
+    Person person = cachingModel.findAllPerson(consumer).get(2);
+    person.setFirstName("geaendert");
+    person.getAddress().setCity("geaendert");
+
+    assertEquals("katze", cachingModel.getPersonById(3L, consumer).orElseThrow().getFirstName());
+    assertEquals(getAddresses.getAddress3().getCity(), cachingModel.findAllPerson(consumer).get(2).getAddress().getCity());
+    assertEquals(0, countingModel.getByIdCalls);
+  }
+
+  @Test
+  void testUpdateInvalidatesOtherPersons() throws Throwable {
+    cachingModel.getPersonById(1L, consumer);
+    cachingModel.getPersonById(2L, consumer);
+    cachingModel.updatePerson(1L, countingModel.people.get(0), consumer);
+
+    assertEquals(0, cachingModel.getSize());
+    cachingModel.getPersonById(2L, consumer);
+    assertEquals(3, countingModel.getByIdCalls);
+  }
+
+  @Test
+  void testSummariesAreInvalidatedByWrites() throws Throwable {
+    cachingModel.findAllSummaries(consumer);
+    cachingModel.findAllSummaries(consumer);
+    cachingModel.delete(2L, consumer);
+    List<PersonSummary> summaries = cachingModel.findAllSummaries(consumer);
+
+    assertEquals(2, summaries.size());
+    assertEquals(2, countingModel.summaryCalls);
+  }
+
+  private static class CountingModel implements Model {
+
+    private final List<Person> people = new ArrayList<>();
+    private int findAllCalls;
+    private int getByIdCalls;
+    private int pageCalls;
+    private int summaryCalls;
+
+    @Override
+    public Person savePerson(Person person, Consumer<Throwable> consumer) {
+      Person saved = new Person((long) people.size() + 10, person.getAddress(), person.getFirstName(), person.getLastName(), person.getBirthdate(), person.getGender());
+      people.add(saved);
+      return saved;
+    }
+
+    @Override
+    public int saveAll(Collection<Person> persons, Consumer<Throwable> consumer) {
+      persons.forEach(person -> savePerson(person, consumer));
+      return persons.size();
+    }
+
+    @Override
+    public Optional<Person> getPersonById(Long id, Consumer<Throwable> consumer) {
+      getByIdCalls++;
+      return people.stream().filter(person -> person.getId_person().equals(id)).findFirst();
+    }
+
+    @Override
+    public Person updatePerson(Long id, Person person, Consumer<Throwable> consumer) {
+      return person;
+    }
+
+    @Override
+    public void delete(Long personId, Consumer<Throwable> consumer) {
+      people.removeIf(person -> person.getId_person().equals(personId));
+    }
+
+    @Override
+    public List<Person> findAllPerson(Consumer<Throwable> consumer) {
+      findAllCalls++;
+      return new ArrayList<>(people);
+    }
+
+    @Override
+    public List<PersonSummary> findAllSummaries(Consumer<Throwable> consumer) {
+      summaryCalls++;
+      return people.stream().map(PersonSummary::of).collect(Collectors.toList());
+    }
+
+    @Override
+    public Stream<Person> streamAll(Consumer<Throwable> consumer) {
+      return people.stream();
+    }
+
+    @Override
+    public List<Person> findPersonsPage(Long afterId, int limit, SortKey sortKey, Consumer<Throwable> consumer) {
+      pageCalls++;
+      return new ArrayList<>(people.subList(0, Math.min(limit, people.size())));
+    }
+  }
+}
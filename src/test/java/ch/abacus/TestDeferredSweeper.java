@@ -0,0 +1,78 @@
+/*
+ * TestDeferredSweeper.java
+ *
+ * Creator:
+ * 18.10.2026 23:40 agent
+ *
+ * Maintainer:
+ * 18.10.2026 23:40 agent
+ *
+ * Last Modification:
+ * $Id:$
+ *
+ * Copyright (c) 2024 ABACUS Research AG, All Rights Reserved
+ */
+package ch.abacus;
+
+import ch.abacus.db.components.DeferredSweeper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TestDeferredSweeper {
+
+  private static final long DELAY = 50;
+
+  private final AtomicInteger runs = new AtomicInteger();
+  private DeferredSweeper sweeper;
+
+  @AfterEach
+  void after() {
+    sweeper.shutdown();
+  }
+
+  @Test
+  void testRequestsBeforeTheSweepAreCoalesced() throws InterruptedException {
+    CountDownLatch first = new CountDownLatch(1);
+    CountDownLatch second = new CountDownLatch(2);
+    sweeper = new DeferredSweeper("test-sweeper", DELAY, () -> {
+      runs.incrementAndGet();
+      first.countDown();
+      second.countDown();
+    });
+
+    sweeper.request();
+    sweeper.request();
+    sweeper.request();
+    assertTrue(first.await(1, TimeUnit.SECONDS));
+    Thread.sleep(2 * DELAY);
+    assertEquals(1, runs.get());
+
+    sweeper.request(); //after the sweep started a new request schedules the next one
+    assertTrue(second.await(1, TimeUnit.SECONDS));
+    assertEquals(2, runs.get());
+  }
+
+  @Test
+  void testFailedSweepDoesNotStopTheNextOne() throws InterruptedException {
+    CountDownLatch done = new CountDownLatch(1);
+    sweeper = new DeferredSweeper("test-sweeper", DELAY, () -> {
+      if (runs.incrementAndGet() == 1) {
+        throw new IllegalStateException("sweep failed");
+      }
+      done.countDown();
+    });
+
+    sweeper.request();
+    Thread.sleep(2 * DELAY);
+    sweeper.request();
+    assertTrue(done.await(1, TimeUnit.SECONDS));
+    assertEquals(2, runs.get());
+  }
+}
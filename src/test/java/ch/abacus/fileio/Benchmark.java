@@ -0,0 +1,79 @@
+/*
+ * Benchmark.java
+ *
+ * Creator:
+ * 18.10.2026 23:55 agent
+ *
+ * Maintainer:
+ * 18.10.2026 23:55 agent
+ *
+ * Last Modification:
+ * $Id:$
+ *
+ * Copyright (c) 2024 ABACUS Research AG, All Rights Reserved
+ */
+package ch.abacus.fileio;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+//base of the benchmarks, they are skipped unless started with mvn test -Dbenchmark=true -Dtest=<benchmark class>.
+//The large file benchmarks need more heap, e.g. -DargLine=-Xmx4g
+@Benchmark.Enabled
+public abstract class Benchmark {
+
+  @Target(ElementType.TYPE)
+  @Retention(RetentionPolicy.RUNTIME)
+  @Inherited
+  @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+  @interface Enabled {
+  }
+
+  protected interface Run {
+    void run() throws Exception;
+  }
+
+  @TempDir
+  protected Path tempDir;
+
+  //nanoseconds of a single run, for work that can't be repeated like deleting rows
+  protected static long time(Run run) throws Exception {
+    long start = System.nanoTime();
+    run.run();
+    return System.nanoTime() - start;
+  }
+
+  //one run to warm up, then the nanoseconds of the fastest of runs
+  protected static long best(int runs, Run run) throws Exception {
+    run.run();
+    long best = Long.MAX_VALUE;
+    for (int i = 0; i < runs; i++) {
+      best = Math.min(best, time(run));
+    }
+    return best;
+  }
+
+  protected static long millis(long nanos) {
+    return TimeUnit.NANOSECONDS.toMillis(nanos);
+  }
+
+  protected static long micros(long nanos) {
+    return TimeUnit.NANOSECONDS.toMicros(nanos);
+  }
+
+  protected static long megabytes(long bytes) {
+    return bytes / (1024 * 1024);
+  }
+
+  protected static void report(String format, Object... args) {
+    System.out.println(String.format(format, args));
+  }
+}
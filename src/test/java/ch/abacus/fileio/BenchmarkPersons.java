@@ -0,0 +1,60 @@
+/*
+ * BenchmarkPersons.java
+ *
+ * Creator:
+ * 18.10.2026 23:10 agent
+ *
+ * Maintainer:
+ * 18.10.2026 23:10 agent
+ *
+ * Last Modification:
+ * $Id:$
+ *
+ * Copyright (c) 2024 ABACUS Research AG, All Rights Reserved
+ */
+package ch.abacus.fileio;
+
+import ch.abacus.db.entity.Address;
+import ch.abacus.db.entity.Gender;
+import ch.abacus.db.entity.Person;
+
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+
+//the persons of the benchmarks, streets, cities and last names repeat like in a real export
+public final class BenchmarkPersons {
+
+  private BenchmarkPersons() {
+  }
+
+  public static List<Person> create(int rows) {
+    List<Person> persons = new ArrayList<>(rows);
+    for (int i = 0; i < rows; i++) {
+      persons.add(person(i));
+    }
+    return persons;
+  }
+
+  //every get creates the person again, for row counts that would not fit into the heap twice
+  static List<Person> lazy(int rows) {
+    return new AbstractList<>() {
+      @Override
+      public Person get(int i) {
+        return person(i);
+      }
+
+      @Override
+      public int size() {
+        return rows;
+      }
+    };
+  }
+
+  static Person person(int i) {
+    Address address = new Address("Bahnhofstrasse " + i % 1000, String.valueOf(i % 200), 1000 + i % 9000, "St. Gallen", "Schweiz");
+    return new Person("Vorname" + i, "Nachname" + i % 50, LocalDate.of(1950, 1, 1).plusDays(i % 20000),
+                      i % 2 == 0 ? Gender.MALE : Gender.FEMALE, address);
+  }
+}
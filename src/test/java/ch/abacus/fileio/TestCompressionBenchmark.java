@@ -0,0 +1,56 @@
+/*
+ * TestCompressionBenchmark.java
+ *
+ * Creator:
+ * 18.10.2026 21:20 agent
+ *
+ * Maintainer:
+ * 18.10.2026 21:20 agent
+ *
+ * Last Modification:
+ * $Id:$
+ *
+ * Copyright (c) 2024 ABACUS Research AG, All Rights Reserved
+ */
+package ch.abacus.fileio;
+
+import ch.abacus.common.FileIOConst;
+import ch.abacus.db.entity.Person;
+import ch.abacus.fileio.components.XMLWRITE;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+//wall time and file size of every format, plain and compressed
+class TestCompressionBenchmark extends Benchmark {
+
+  private static final int ROWS = 200_000;
+  private static final int RUNS = 1;
+  private static final String[] COMPRESSIONS = {"", ".gz", ".deflate"};
+
+  private final PersonIOFactory factory = new PersonIOFactory();
+
+  @Test
+  void benchmarkCompressedFormats() throws Exception {
+    List<Person> persons = BenchmarkPersons.create(ROWS);
+    measure(persons, "persons.csv", XMLWRITE.DOM);
+    measure(persons, "persons.json", XMLWRITE.DOM);
+    measure(persons, "persons.xml", XMLWRITE.STAX);
+    measure(persons, "persons.xml", XMLWRITE.JAXB);
+    measure(persons, "persons.xml", XMLWRITE.DOM);
+  }
+
+  private void measure(List<Person> persons, String name, XMLWRITE xmlwrite) throws Exception {
+    for (String compression : COMPRESSIONS) {
+      File file = tempDir.resolve(xmlwrite + name + compression).toFile();
+      long write = best(RUNS, () -> factory.write(persons, file, xmlwrite));
+      long read = best(RUNS, () -> assertEquals(ROWS, factory.read(file, xmlwrite).size()));
+
+      report("%-28s %-5s %10d KB  write %6d ms  read %6d ms", name + compression,
+             name.endsWith(FileIOConst.XML) ? xmlwrite : FileIOConst.NOTHING, file.length() / 1024, millis(write), millis(read));
+    }
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ * TestCsvBenchmark.java
+ *
+ * Creator:
+ * 18.10.2026 18:25 agent
+ *
+ * Maintainer:
+ * 18.10.2026 18:25 agent
+ *
+ * Last Modification:
+ * $Id:$
+ *
+ * Copyright (c) 2024 ABACUS Research AG, All Rights Reserved
+ */
+package ch.abacus.fileio;
+
+import ch.abacus.db.entity.Person;
+import ch.abacus.fileio.components.CsvCodec;
+import ch.abacus.fileio.components.ParallelCsvReader;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+//the import should get faster with every thread until the disk or the memory bandwidth is the limit
+class TestCsvBenchmark extends Benchmark {
+
+  private static final int ROWS = 2_000_000;
+  private static final int[] THREADS = {1, 2, 4, 8};
+  private static final int RUNS = 3;
+
+  @Test
+  void benchmarkParallelRead() throws Exception {
+    Path path = tempDir.resolve("benchmark.csv");
+    new CsvCodec().write(createPersons(), path);
+    report("%d persons, %d MB", ROWS, megabytes(Files.size(path)));
+
+    for (int threads : THREADS) {
+      ParallelCsvReader reader = new ParallelCsvReader(threads, 1);
+      long best = best(RUNS, () -> assertEquals(ROWS, reader.read(path).size()));
+      report("%d threads: %d ms", threads, millis(best));
+    }
+  }
+
+  //a comma in the street and quotes in the last name, so the reader has to unquote fields
+  private List<Person> createPersons() {
+    List<Person> persons = BenchmarkPersons.create(ROWS);
+    for (Person person : persons) {
+      person.getAddress().setStreet(person.getAddress().getStreet().replace(" ", ", "));
+      person.setLastName(person.getLastName().replace("Nachname", "Nachname \"") + "\"");
+    }
+    return persons;
+  }
+}
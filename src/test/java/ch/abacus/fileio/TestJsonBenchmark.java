@@ -0,0 +1,77 @@
+/*
+ * TestJsonBenchmark.java
+ *
+ * Creator:
+ * 18.10.2026 19:20 agent
+ *
+ * Maintainer:
+ * 18.10.2026 19:20 agent
+ *
+ * Last Modification:
+ * $Id:$
+ *
+ * Copyright (c) 2024 ABACUS Research AG, All Rights Reserved
+ */
+package ch.abacus.fileio;
+
+import ch.abacus.db.entity.Person;
+import ch.abacus.fileio.components.JsonCodec;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonDeserializer;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSerializer;
+import com.google.gson.reflect.TypeToken;
+import org.junit.jupiter.api.Test;
+
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+//compares the reflective Gson mapping the Json PersonIO used before with the streaming JsonCodec on a file of about 500 MB
+class TestJsonBenchmark extends Benchmark {
+
+  private static final int ROWS = 2_700_000;
+
+  @Test
+  void benchmarkReflectiveAgainstStreaming() throws Exception {
+    Gson gson = new GsonBuilder()
+        .registerTypeAdapter(LocalDate.class, (JsonSerializer<LocalDate>) (date, type, context) -> new JsonPrimitive(date.toString()))
+        .registerTypeAdapter(LocalDate.class, (JsonDeserializer<LocalDate>) (json, type, context) -> LocalDate.parse(json.getAsString()))
+        .setPrettyPrinting()
+        .create();
+    Type listType = new TypeToken<List<Person>>() {
+    }.getType();
+    List<Person> persons = BenchmarkPersons.lazy(ROWS);
+    Path reflective = tempDir.resolve("reflective.json");
+    Path streaming = tempDir.resolve("streaming.json");
+
+    long reflectiveWrite = time(() -> {
+      try (Writer writer = Files.newBufferedWriter(reflective)) {
+        gson.toJson(persons, listType, writer);
+      }
+    });
+    long streamingWrite = time(() -> new JsonCodec().write(persons, streaming));
+    long reflectiveRead = time(() -> {
+      try (Reader reader = Files.newBufferedReader(reflective)) {
+        List<Person> read = gson.fromJson(reader, listType);
+        assertEquals(ROWS, read.size());
+      }
+    });
+    long streamingRead = time(() -> {
+      AtomicInteger count = new AtomicInteger();
+      new JsonCodec().read(streaming, person -> count.incrementAndGet());
+      assertEquals(ROWS, count.get());
+    });
+
+    report("reflective: %d MB, write %d ms, read %d ms", megabytes(Files.size(reflective)), millis(reflectiveWrite), millis(reflectiveRead));
+    report("streaming:  %d MB, write %d ms, read %d ms", megabytes(Files.size(streaming)), millis(streamingWrite), millis(streamingRead));
+  }
+}
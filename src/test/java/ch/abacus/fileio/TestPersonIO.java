@@ -0,0 +1,398 @@
+/*
+ * TestPersonIO.java
+ *
+ * Creator:
+ * 18.10.2026 17:40 agent
+ *
+ * Maintainer:
+ * 18.10.2026 17:40 agent
+ *
+ * Last Modification:
+ * $Id:$
+ *
+ * Copyright (c) 2024 ABACUS Research AG, All Rights Reserved
+ */
+package ch.abacus.fileio;
+
+import ch.abacus.common.FileIOConst;
+import ch.abacus.components.GetAddresses;
+import ch.abacus.components.GetPeople;
+import ch.abacus.db.entity.Address;
+import ch.abacus.db.entity.Gender;
+import ch.abacus.db.entity.Person;
+import ch.abacus.fileio.components.CompressedFiles;
+import ch.abacus.fileio.components.Compression;
+import ch.abacus.fileio.components.CsvCodec;
+import ch.abacus.fileio.components.JsonCodec;
+import ch.abacus.fileio.components.ParallelCsvReader;
+import ch.abacus.fileio.components.SnapshotCodec;
+import ch.abacus.fileio.components.StaxPersonReader;
+import ch.abacus.fileio.components.XMLWRITE;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TestPersonIO {
+
+  private final GetPeople getPeople = new GetPeople();
+  private final GetAddresses getAddresses = new GetAddresses();
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void testCsvRoundTrip() throws IOException {
+    List<Person> persons = List.of(getPeople.getPerson(getAddresses.getAddress()),
+                                   getPeople.getPerson2(getAddresses.getAddress2()),
+                                   getPeople.getPerson3(getAddresses.getAddress3()));
+    File file = tempDir.resolve("persons.csv").toFile();
+
+    Csv csv = new Csv();
+    csv.write(persons, file, XMLWRITE.JAXB);
+    List<Person> read = csv.read(file, XMLWRITE.JAXB);
+
+    assertPersonsEqual(persons, read);
+  }
+
+  @Test
+  void testCsvKeepsSpacesQuotesAndUmlauts() throws IOException {
+    Address address = new Address("Rue de la \"Gare\", Süd", "12 b", 1200, "Genève", "Schweiz");
+    List<Person> persons = List.of(new Person("Jean Claude", "Van Damme", LocalDate.of(1960, 10, 18), Gender.MALE, address),
+                                   new Person(" Anna", "Müller\nMeier", LocalDate.of(1999, 1, 2), Gender.FEMALE, address));
+    Path path = tempDir.resolve("special.csv");
+
+    new CsvCodec().write(persons, path);
+
+    assertPersonsEqual(persons, new CsvCodec().read(path));
+  }
+
+  @Test
+  void testCsvReadsLegacyFormat() throws IOException {
+    Path path = tempDir.resolve("legacy.csv");
+    Files.write(path, ("Josia, Schweizer, 2007-09-18, MALE, Bahnhofstrasse, 1, 9000, St. Gallen, Schweiz\r\n"
+                       + "\r\n"
+                       + "hund, hundename, 2000-09-19, FEMALE, Hauptstrasse, 2a, 8000, Zürich, Schweiz").getBytes(StandardCharsets.UTF_8));
+
+    List<Person> read = new CsvCodec().read(path);
+
+    assertEquals(2, read.size());
+    assertEquals("Schweizer", read.get(0).getLastName());
+    assertEquals(Gender.MALE, read.get(0).getGender());
+    assertEquals(9000, read.get(0).getAddress().getZipCode());
+    assertEquals("Zürich", read.get(1).getAddress().getCity());
+    assertEquals(Gender.FEMALE, read.get(1).getGender());
+  }
+
+  @Test
+  void testCsvRecordsSpanningReadWindows() throws IOException {
+    List<Person> persons = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      Address address = new Address("Strasse \"" + i + "\"", String.valueOf(i), 1000 + i, "Ort, " + i, "Schweiz");
+      persons.add(new Person("Vorname " + i, "Nachname", LocalDate.of(1950, 1, 1).plusDays(i), i % 2 == 0 ? Gender.MALE : Gender.FEMALE, address));
+    }
+    Path path = tempDir.resolve("windows.csv");
+
+    new CsvCodec(97, 31).write(persons, path);
+
+    assertPersonsEqual(persons, new CsvCodec(97, 31).read(path));
+  }
+
+  @Test
+  void testParallelCsvReadKeepsOrder() throws IOException {
+    List<Person> persons = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      //quoted line breaks must not be taken for record ends when the file is split
+      Address address = new Address("Strasse\n" + i, String.valueOf(i), 1000 + i, "Ort \"" + i + "\"", "Schweiz");
+      persons.add(new Person("Vorname " + i, "Nachname", LocalDate.of(1950, 1, 1).plusDays(i), Gender.MALE, address));
+    }
+    Path path = tempDir.resolve("parallel.csv");
+    new CsvCodec().write(persons, path);
+
+    for (int parallelism : new int[]{1, 2, 3, 8}) {
+      assertPersonsEqual(persons, new ParallelCsvReader(parallelism, 1).read(path));
+    }
+  }
+
+  @Test
+  void testParallelCsvReadWithStrayQuote() throws IOException {
+    List<Person> persons = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      Address address = new Address("Strasse\n" + i, String.valueOf(i), 1000 + i, "Ort", "Schweiz");
+      persons.add(new Person("Vorname " + i, "Nachname", LocalDate.of(1950, 1, 1), Gender.MALE, address));
+    }
+    Path path = tempDir.resolve("stray.csv");
+    new CsvCodec().write(persons, path);
+    byte[] written = Files.readAllBytes(path);
+    byte[] stray = "Josia,Schweizer,2007-09-18,MALE,5\" Strasse,1,9000,St. Gallen,Schweiz\n".getBytes(StandardCharsets.UTF_8);
+    byte[] content = new byte[stray.length + written.length];
+    System.arraycopy(stray, 0, content, 0, stray.length);
+    System.arraycopy(written, 0, content, stray.length, written.length);
+    Files.write(path, content);
+
+    List<Person> expected = new CsvCodec().read(path);
+    assertEquals("5\" Strasse", expected.get(0).getAddress().getStreet());
+    assertPersonsEqual(expected, new ParallelCsvReader(4, 1).read(path));
+  }
+
+  @Test
+  void testJaxbConcurrentRoundTrips() throws Exception {
+    List<Person> persons = List.of(getPeople.getPerson(getAddresses.getAddress()),
+                                   getPeople.getPerson2(getAddresses.getAddress2()));
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<List<Person>>> results = new ArrayList<>();
+      for (int i = 0; i < 32; i++) {
+        File file = tempDir.resolve("persons" + i + ".xml").toFile();
+        results.add(executor.submit(() -> {
+          Jaxb jaxb = new Jaxb();
+          jaxb.write(persons, file, XMLWRITE.JAXB);
+          return jaxb.read(file, XMLWRITE.JAXB);
+        }));
+      }
+      for (Future<List<Person>> result : results) {
+        assertPersonsEqual(persons, result.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void testJsonRoundTrip() throws IOException {
+    Address address = new Address(7L, "Rue de la \"Gare\"", "12 b", 1200, "Genève", "Schweiz");
+    List<Person> persons = List.of(new Person(3L, address, "Jean\nClaude", "Van Damme", LocalDate.of(1960, 10, 18), Gender.MALE),
+                                   new Person("Anna", "Müller", LocalDate.of(1999, 1, 2), Gender.FEMALE, getAddresses.getAddress()));
+    File file = tempDir.resolve("persons.json").toFile();
+
+    Json json = new Json();
+    json.write(persons, file, XMLWRITE.JAXB);
+    List<Person> read = json.read(file, XMLWRITE.JAXB);
+
+    assertPersonsEqual(persons, read);
+    assertEquals(3L, read.get(0).getId_person());
+    assertEquals(7L, read.get(0).getAddress().getId_address());
+  }
+
+  @Test
+  void testJsonReadsPrettyPrintedExport() throws IOException {
+    Path path = tempDir.resolve("legacy.json");
+    Files.write(path, ("[\n  {\n    \"firstname\": \"Josia\",\n    \"lastname\": \"Schweizer\",\n    \"birthdate\": \"2007-09-18\",\n"
+                       + "    \"gender\": \"MALE\",\n    \"address\": {\n      \"street\": \"Bahnhofstrasse\",\n      \"streetnumber\": \"1\",\n"
+                       + "      \"zipcode\": 9000,\n      \"city\": \"St. Gallen\",\n      \"country\": \"Schweiz\",\n      \"unknown\": [1, 2]\n    }\n  }\n]")
+        .getBytes(StandardCharsets.UTF_8));
+
+    List<Person> read = new JsonCodec().read(path);
+
+    assertEquals(1, read.size());
+    assertEquals(LocalDate.of(2007, 9, 18), read.get(0).getBirthdate());
+    assertEquals(Gender.MALE, read.get(0).getGender());
+    assertEquals(9000, read.get(0).getAddress().getZipCode());
+    assertEquals("St. Gallen", read.get(0).getAddress().getCity());
+  }
+
+  @Test
+  void testStaxRoundTrip() throws IOException {
+    Address address = new Address("Rue <de> la & Gare", "12 b", 1200, "Genève", "Schweiz");
+    List<Person> persons = List.of(new Person("Jean & Claude", "Van Damme", LocalDate.of(1960, 10, 18), Gender.MALE, address),
+                                   getPeople.getPerson2(getAddresses.getAddress2()));
+    File file = tempDir.resolve("persons.xml").toFile();
+
+    Stax stax = new Stax();
+    stax.write(persons, file, XMLWRITE.STAX);
+
+    assertPersonsEqual(persons, stax.read(file, XMLWRITE.STAX));
+  }
+
+  @Test
+  void testStaxJoinsSplitText() throws IOException {
+    String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?><Persons><Person>"
+                 + "<firstname> Jo&amp;sia </firstname><lastname>Schw<![CDATA[ei]]>zer</lastname><birthdate>2007-09-18</birthdate>"
+                 + "<gender>Male</gender><Address><street>Bahnhof&#115;trasse</street><streetnumber>1</streetnumber>"
+                 + "<zipcode>90<!-- split -->00</zipcode><city>St. Gallen</city><country>Schweiz</country></Address>"
+                 + "</Person></Persons>";
+    List<Person> read = new ArrayList<>();
+
+    new StaxPersonReader().read(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), read::add);
+
+    assertEquals(1, read.size());
+    assertEquals("Jo&sia", read.get(0).getFirstName());
+    assertEquals("Schweizer", read.get(0).getLastName());
+    assertEquals(Gender.MALE, read.get(0).getGender());
+    assertEquals("Bahnhofstrasse", read.get(0).getAddress().getStreet());
+    assertEquals(9000, read.get(0).getAddress().getZipCode());
+  }
+
+  @Test
+  void testDomRoundTrip() throws IOException {
+    Address address = new Address("Rue <de> la & Gare", "12 b", 1200, "Genève", "Schweiz");
+    List<Person> persons = List.of(new Person("Jean & Claude", "Van Damme", LocalDate.of(1960, 10, 18), Gender.MALE, address),
+                                   getPeople.getPerson2(getAddresses.getAddress2()));
+    File file = tempDir.resolve("persons.xml").toFile();
+
+    Dom dom = new Dom();
+    dom.write(persons, file, XMLWRITE.DOM);
+
+    assertTrue(Files.readString(file.toPath(), StandardCharsets.UTF_8).startsWith(FileIOConst.XMLDOCTYP));
+    assertPersonsEqual(persons, dom.read(file, XMLWRITE.DOM));
+  }
+
+  @Test
+  void testCompressedRoundTrips() throws IOException {
+    Address address = new Address("Rue de la \"Gare\", Süd", "12 b", 1200, "Genève", "Schweiz");
+    List<Person> persons = new ArrayList<>();
+    for (int i = 0; i < 300; i++) {
+      persons.add(new Person("Vorname " + i, "Müller", LocalDate.of(1950, 1, 1).plusDays(i), i % 2 == 0 ? Gender.MALE : Gender.FEMALE, address));
+    }
+    //a small buffer makes the csv reader grow its window and the streams refill often
+    PersonIOFactory factory = new PersonIOFactory(new CompressedFiles(1, 64));
+
+    for (String name : new String[]{"persons.csv.gz", "persons.json.gz", "persons.xml.gz", "persons.csv.deflate", "persons.JSON.DEFLATE", "persons.xml.deflate"}) {
+      for (XMLWRITE xmlwrite : XMLWRITE.values()) {
+        File file = tempDir.resolve(xmlwrite + name).toFile();
+        factory.write(persons, file, xmlwrite);
+
+        assertEquals(Compression.of(name), new GetFileExtension().getCompression(file.getName()));
+        if (Compression.of(name) == Compression.GZIP) {
+          byte[] bytes = Files.readAllBytes(file.toPath());
+          assertEquals((byte) 0x1f, bytes[0]); //gzip magic number
+          assertEquals((byte) 0x8b, bytes[1]);
+        }
+        assertPersonsEqual(persons, factory.read(file, xmlwrite));
+      }
+    }
+  }
+
+  @Test
+  void testCompoundFileExtensions() {
+    GetFileExtension getFileExtension = new GetFileExtension();
+
+    assertEquals("xml", getFileExtension.getExtensionByStringHandling("/tmp/my.persons.xml.gz").orElseThrow());
+    assertEquals("csv", getFileExtension.getExtensionByStringHandling("persons.csv.deflate").orElseThrow());
+    assertEquals("json", getFileExtension.getExtensionByStringHandling("persons.json").orElseThrow());
+    assertTrue(getFileExtension.getExtensionByStringHandling("persons.gz").isEmpty());
+    assertEquals(Compression.NONE, getFileExtension.getCompression("persons.xml"));
+    assertEquals(Compression.GZIP, getFileExtension.getCompression("persons.xml.GZ"));
+  }
+
+  @Test
+  void testSnapshotRoundTrip() throws IOException {
+    List<Person> persons = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      Address address = new Address("Strasse " + i % 7, String.valueOf(i), 1000 + i, i % 3 == 0 ? "Genève" : "Zürich", "Schweiz");
+      persons.add(new Person("Vorname " + i, "Nachname \n" + i, LocalDate.of(1850, 1, 1).plusDays(i * 97L), i % 2 == 0 ? Gender.MALE : Gender.FEMALE, address));
+    }
+    persons.add(new Person(null, "", null, null, new Address(null, null, 0, null, null)));
+    PersonIOFactory factory = new PersonIOFactory();
+
+    for (String name : new String[]{"persons.snapshot", "persons.snapshot.gz"}) {
+      File file = tempDir.resolve(name).toFile();
+      factory.write(persons, file, XMLWRITE.DOM);
+      List<Person> read = factory.read(file, XMLWRITE.DOM);
+
+      assertPersonsEqual(persons.subList(0, 1000), read.subList(0, 1000));
+      Person empty = read.get(1000);
+      assertNull(empty.getFirstName());
+      assertEquals("", empty.getLastName());
+      assertNull(empty.getBirthdate());
+      assertNull(empty.getGender());
+      assertNull(empty.getAddress().getCity());
+    }
+    //every distinct city is decoded once and shared
+    List<Person> read = new SnapshotCodec().read(tempDir.resolve("persons.snapshot"));
+    assertSame(read.get(1).getAddress().getCity(), read.get(2).getAddress().getCity());
+  }
+
+  @Test
+  void testSnapshotRejectsForeignAndTruncatedFiles() throws IOException {
+    Path foreign = tempDir.resolve("foreign.snapshot");
+    Files.write(foreign, "Josia, Schweizer, 2007-09-18".getBytes(StandardCharsets.UTF_8));
+    assertThrows(IOException.class, () -> new SnapshotCodec().read(foreign));
+
+    Path truncated = tempDir.resolve("truncated.snapshot");
+    new SnapshotCodec().write(List.of(getPeople.getPerson(getAddresses.getAddress())), truncated);
+    byte[] bytes = Files.readAllBytes(truncated);
+    Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 3));
+    assertThrows(IOException.class, () -> new SnapshotCodec().read(truncated));
+
+    ByteBuffer hugeString = ByteBuffer.allocate(18)
+        .putInt(FileIOConst.SNAPSHOTMAGIC).putShort(FileIOConst.SNAPSHOTVERSION).putInt(0).putInt(1)
+        .putInt(Integer.MAX_VALUE); //firstname length without the bytes, must not be allocated
+    IOException e = assertThrows(IOException.class, () -> new SnapshotCodec().read(new ByteArrayInputStream(hugeString.array())));
+    assertEquals(FileIOConst.SNAPSHOTTRUNCATED, e.getMessage());
+
+    ByteBuffer hugeDictionary = ByteBuffer.allocate(14)
+        .putInt(FileIOConst.SNAPSHOTMAGIC).putShort(FileIOConst.SNAPSHOTVERSION).putInt(Integer.MAX_VALUE).putInt(0);
+    e = assertThrows(IOException.class, () -> new SnapshotCodec().read(new ByteArrayInputStream(hugeDictionary.array())));
+    assertEquals(FileIOConst.SNAPSHOTTRUNCATED, e.getMessage());
+  }
+
+  @Test
+  void testCsvRejectsMalformedRecords() throws IOException {
+    Path path = tempDir.resolve("malformed.csv");
+    Files.write(path, "Josia, Schweizer, 2007-09-18\n".getBytes(StandardCharsets.UTF_8));
+
+    assertThrows(IOException.class, () -> new CsvCodec().read(path));
+  }
+
+  @Test
+  void testCsvErrorsReportFileOffsets() throws IOException {
+    String valid = "Josia,Schweizer,2007-09-18,MALE,Bahnhofstrasse,1,9000,St. Gallen,Schweiz\n";
+    Path path = tempDir.resolve("offsets.csv");
+    Files.write(path, (valid + valid + "\"Anna\"x,Muster\n").getBytes(StandardCharsets.UTF_8));
+
+    //one record per window, the broken one starts at byte 2 * valid.length()
+    IOException e = assertThrows(IOException.class, () -> new CsvCodec(valid.length(), 31).read(path));
+    assertEquals(FileIOConst.CSVMALFORMED + (2 * valid.length() + 6), e.getMessage());
+  }
+
+  @Test
+  void testCsvReadsWhatItWrites() throws IOException {
+    List<Person> persons = new ArrayList<>();
+    for (int zipCode : new int[]{0, -1, Integer.MAX_VALUE, Integer.MIN_VALUE}) {
+      for (LocalDate birthdate : new LocalDate[]{LocalDate.of(7, 3, 4), LocalDate.of(12345, 6, 7), LocalDate.of(-44, 3, 15), LocalDate.MIN, LocalDate.MAX}) {
+        Address address = new Address("Strasse", "1", zipCode, "Ort", "Schweiz");
+        persons.add(new Person("Vorname", "Nachname", birthdate, Gender.FEMALE, address));
+      }
+    }
+    Path path = tempDir.resolve("range.csv");
+
+    new CsvCodec().write(persons, path);
+
+    List<Person> read = new CsvCodec().read(path);
+    assertPersonsEqual(persons, read);
+    for (int i = 0; i < persons.size(); i++) {
+      assertEquals(persons.get(i).getBirthdate(), read.get(i).getBirthdate());
+      assertEquals(persons.get(i).getAddress().getZipCode(), read.get(i).getAddress().getZipCode());
+    }
+  }
+
+  private void assertPersonsEqual(List<Person> expected, List<Person> actual) {
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(expected.get(i), actual.get(i));
+      assertEquals(expected.get(i).getGender(), actual.get(i).getGender());
+      assertEquals(expected.get(i).getAddress().getStreetNumber(), actual.get(i).getAddress().getStreetNumber());
+      assertEquals(expected.get(i).getAddress().getCountry(), actual.get(i).getAddress().getCountry());
+    }
+  }
+}
@@ -0,0 +1,44 @@
+/*
+ * TestSnapshotBenchmark.java
+ *
+ * Creator:
+ * 18.10.2026 22:20 agent
+ *
+ * Maintainer:
+ * 18.10.2026 22:20 agent
+ *
+ * Last Modification:
+ * $Id:$
+ *
+ * Copyright (c) 2024 ABACUS Research AG, All Rights Reserved
+ */
+package ch.abacus.fileio;
+
+import ch.abacus.db.entity.Person;
+import ch.abacus.fileio.components.SnapshotCodec;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+//saving and loading a million persons should take well under a second each
+class TestSnapshotBenchmark extends Benchmark {
+
+  private static final int ROWS = 1_000_000;
+  private static final int RUNS = 3;
+
+  @Test
+  void benchmarkSaveAndLoad() throws Exception {
+    List<Person> persons = BenchmarkPersons.create(ROWS);
+    Path path = tempDir.resolve("benchmark.snapshot");
+    SnapshotCodec codec = new SnapshotCodec();
+
+    long write = best(RUNS, () -> codec.write(persons, path));
+    long read = best(RUNS, () -> assertEquals(ROWS, codec.read(path).size()));
+
+    report("%d persons, %d KB: save %d ms, load %d ms", ROWS, Files.size(path) / 1024, millis(write), millis(read));
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * TestStaxBenchmark.java
+ *
+ * Creator:
+ * 18.10.2026 20:05 agent
+ *
+ * Maintainer:
+ * 18.10.2026 20:05 agent
+ *
+ * Last Modification:
+ * $Id:$
+ *
+ * Copyright (c) 2024 ABACUS Research AG, All Rights Reserved
+ */
+package ch.abacus.fileio;
+
+import ch.abacus.fileio.components.StaxPersonReader;
+import ch.abacus.fileio.components.XMLWRITE;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+//prints the read throughput and the bytes the reading thread allocates per record
+class TestStaxBenchmark extends Benchmark {
+
+  private static final int ROWS = 500_000;
+  private static final int RUNS = 5;
+
+  @Test
+  void benchmarkRead() throws Exception {
+    File file = tempDir.resolve("benchmark.xml").toFile();
+    new Stax().write(BenchmarkPersons.create(ROWS), file, XMLWRITE.STAX);
+    com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long thread = Thread.currentThread().getId();
+    AtomicLong allocated = new AtomicLong();
+
+    long best = best(RUNS, () -> {
+      AtomicInteger count = new AtomicInteger();
+      long bytes = threads.getThreadAllocatedBytes(thread);
+      try (InputStream inputStream = new BufferedInputStream(new FileInputStream(file))) {
+        new StaxPersonReader().read(inputStream, person -> count.incrementAndGet());
+      }
+      allocated.set(threads.getThreadAllocatedBytes(thread) - bytes);
+      assertEquals(ROWS, count.get());
+    });
+
+    report("%d persons, %d MB: %d records/s, %d bytes allocated per record", ROWS, megabytes(file.length()),
+           ROWS * TimeUnit.SECONDS.toNanos(1) / best, allocated.get() / ROWS);
+  }
+}
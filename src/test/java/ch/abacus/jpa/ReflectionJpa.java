@@ -14,8 +14,10 @@
  */
 package ch.abacus.jpa;
 
+import ch.abacus.common.JPAStatments;
 import ch.abacus.controller.Controller;
 import ch.abacus.db.JPAModelImpl;
+import ch.abacus.db.components.EntitymanagerUtil;
 import ch.abacus.db.entity.Address;
 import ch.abacus.db.entity.Person;
 
@@ -55,12 +57,10 @@ public class ReflectionJpa {
     return (boolean) method.invoke(impl, id, controller);
   }
 
-  @SuppressWarnings("unchecked")
-  public static List<Address> findAllAddressesUsingReflection(Controller controller) throws NoSuchMethodException, InvocationTargetException, IllegalAccessException {
-    JPAModelImpl impl = new JPAModelImpl();
-    Method method = impl.getClass().getDeclaredMethod("findAllAddresses", Consumer.class);
-    method.setAccessible(true);
-    return (List<Address>) method.invoke(impl, controller);
+  //the model has no address listing, the tests read the table directly
+  public static List<Address> findAllAddresses() {
+    EntitymanagerUtil emu = EntitymanagerUtil.getInstance();
+    return emu.unitOfWork(() -> emu.getEm().createQuery(JPAStatments.SELECT_ADDRESS, Address.class).getResultList());
   }
 
   public static void deleteByIdUsingRefelection(Long id, boolean isPerson, Controller controller) throws NoSuchMethodException, InvocationTargetException, IllegalAccessException {
@@ -69,7 +69,7 @@ class TestAddress {
     Address address = getAddresses.getAddress();
 
     ReflectionJpa.saveAddressUsingReflection(address, controller);
-    List<Address> addresses = ReflectionJpa.findAllAddressesUsingReflection(controller);
+    List<Address> addresses = ReflectionJpa.findAllAddresses();
 
     assertEquals(1, addresses.size());
     assertEquals(address, addresses.get(0));
@@ -79,7 +79,7 @@ class TestAddress {
   void testFindAllAddresses() throws InvocationTargetException, NoSuchMethodException, IllegalAccessException {
     Address address = getAddresses.getAddress();
     ReflectionJpa.saveAddressUsingReflection(address, controller);
-    List<Address> addresses = ReflectionJpa.findAllAddressesUsingReflection(controller);
+    List<Address> addresses = ReflectionJpa.findAllAddresses();
 
     int listSize = addresses.size();
     assertEquals(1, listSize);
@@ -111,7 +111,7 @@ class TestAddress {
   void testGetAddressId() throws InvocationTargetException, NoSuchMethodException, IllegalAccessException {
     Address address = getAddresses.getAddress();
     ReflectionJpa.saveAddressUsingReflection(address, controller);
-    List<Address> addresses = ReflectionJpa.findAllAddressesUsingReflection(controller);
+    List<Address> addresses = ReflectionJpa.findAllAddresses();
     assertEquals(addresses.get(0).getId_address(), ReflectionJpa.getAddressIdUsingReflection(address, controller).get());
   }
 
@@ -121,7 +121,7 @@ class TestAddress {
     ReflectionJpa.saveAddressUsingReflection(address, controller);
     Address anotherAddress = getAddresses.getAddress2();
     ReflectionJpa.saveAddressUsingReflection(anotherAddress, controller);
-    List<Address> addresses = ReflectionJpa.findAllAddressesUsingReflection(controller);
+    List<Address> addresses = ReflectionJpa.findAllAddresses();
     assertEquals(2, addresses.size());
     assertEquals(address, addresses.get(0));
     assertEquals(anotherAddress, addresses.get(1));
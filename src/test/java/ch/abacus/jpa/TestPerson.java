@@ -14,6 +14,7 @@
  */
 package ch.abacus.jpa;
 
+import ch.abacus.common.SortKey;
 import ch.abacus.controller.Controller;
 import ch.abacus.controller.ControllerImpl;
 import ch.abacus.db.components.EntitymanagerUtil;
@@ -89,6 +90,22 @@ class TestPerson {
     assertEquals(insertedPerson2, people.get(1));
   }
 
+  @Test
+  void testFindPersonsPage() throws Throwable {
+    Person insertedPerson = jpaModel.savePerson(getPeople.getPerson(getAddresses.getAddress()), controller);
+    Person insertedPerson2 = jpaModel.savePerson(getPeople.getPerson2(getAddresses.getAddress2()), controller);
+    Person insertedPerson3 = jpaModel.savePerson(getPeople.getPerson3(getAddresses.getAddress3()), controller);
+
+    List<Person> firstPage = jpaModel.findPersonsPage(null, 2, SortKey.ID, controller);
+    assertEquals(2, firstPage.size());
+    assertEquals(insertedPerson, firstPage.get(0));
+    assertEquals(insertedPerson2, firstPage.get(1));
+
+    List<Person> secondPage = jpaModel.findPersonsPage(insertedPerson2.getId_person(), 2, SortKey.ID, controller);
+    assertEquals(1, secondPage.size());
+    assertEquals(insertedPerson3, secondPage.get(0));
+  }
+
   @Test
   void testAssignAddressToTwoPersonsAndCanDelete() throws Throwable {
     Address address = getAddresses.getAddress();
@@ -168,7 +185,7 @@ class TestPerson {
     assertEquals(address.getCity(), editedPerson.getAddress().getCity());
     assertEquals(address.getCountry(), editedPerson.getAddress().getCountry());
     assertEquals(2, jpaModel.findAllPerson(controller).size());
-    assertEquals(1, ReflectionJpa.findAllAddressesUsingReflection(controller).size());
+    assertEquals(1, ReflectionJpa.findAllAddresses().size());
 
     Address address3 = getAddresses.getAddress3();
     newPerson = getPeople.getPerson3(address3);
@@ -185,7 +202,7 @@ class TestPerson {
     assertEquals(address3.getCity(), editedPerson.getAddress().getCity());
     assertEquals(address3.getCountry(), editedPerson.getAddress().getCountry());
     assertEquals(2, jpaModel.findAllPerson(controller).size());
-    assertEquals(2, ReflectionJpa.findAllAddressesUsingReflection(controller).size());
+    assertEquals(2, ReflectionJpa.findAllAddresses().size());
   }
 
   @Test
@@ -247,6 +264,20 @@ class TestPerson {
     assertEquals(person, foundPerson.get());
   }
 
+  @Test
+  void testGetPersonByIdFromCacheLoadsAddress() throws Throwable {
+    EntitymanagerUtil.setInstance(new EntitymanagerUtil()); //commits, so every unit of work closes its EntityManager
+    try {
+      Person person = jpaModel.savePerson(getPeople.getPerson(getAddresses.getAddress()), controller);
+      jpaModel.getPersonById(person.getId_person(), controller);
+      Person cached = jpaModel.getPersonById(person.getId_person(), controller).orElseThrow(); //second-level cache hit
+
+      assertEquals(getAddresses.getAddress().getCity(), cached.getAddress().getCity());
+    } finally {
+      EntitymanagerUtil.getInstance().clearDatabase();
+    }
+  }
+
   @Test
   void testSamePerson() throws InvocationTargetException, NoSuchMethodException, IllegalAccessException {
     Address address = ReflectionJpa.saveAddressUsingReflection(getAddresses.getAddress(), controller);
@@ -0,0 +1,75 @@
+/*
+ * TestUpdateDeleteBenchmark.java
+ *
+ * Creator:
+ * 18.10.2026 15:10 agent
+ *
+ * Maintainer:
+ * 18.10.2026 15:10 agent
+ *
+ * Last Modification:
+ * $Id:$
+ *
+ * Copyright (c) 2024 ABACUS Research AG, All Rights Reserved
+ */
+package ch.abacus.jpa;
+
+import ch.abacus.controller.Controller;
+import ch.abacus.controller.ControllerImpl;
+import ch.abacus.db.JPAModelImpl;
+import ch.abacus.db.components.EntitymanagerUtil;
+import ch.abacus.db.entity.Person;
+import ch.abacus.fileio.Benchmark;
+import ch.abacus.fileio.BenchmarkPersons;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+//the time per operation should stay about the same for both table sizes
+class TestUpdateDeleteBenchmark extends Benchmark {
+
+  private static final int[] ROWS = {10_000, 100_000};
+  private static final int OPERATIONS = 500;
+
+  private final Controller controller = new ControllerImpl();
+  private final JPAModelImpl model = new JPAModelImpl();
+
+  @BeforeEach
+  public void before() {
+    EntitymanagerUtil.getInstance().clearDatabase();
+  }
+
+  @AfterEach
+  public void after() {
+    EntitymanagerUtil.getInstance().clearDatabase();
+  }
+
+  @Test
+  void benchmarkUpdateAndDelete() throws Exception {
+    for (int rows : ROWS) {
+      EntitymanagerUtil.getInstance().clearDatabase();
+      assertEquals(rows, model.saveAll(BenchmarkPersons.create(rows), controller));
+      List<Person> persons = model.findAllPerson(controller);
+
+      long updates = time(() -> {
+        for (int i = 0; i < OPERATIONS; i++) {
+          Person person = persons.get(i * (rows / OPERATIONS));
+          Person changed = new Person(person.getId_person(), person.getAddress(), person.getFirstName() + "x", person.getLastName(), person.getBirthdate(), person.getGender());
+          model.updatePerson(person.getId_person(), changed, controller);
+        }
+      });
+      long deletes = time(() -> {
+        for (int i = 0; i < OPERATIONS; i++) {
+          model.delete(persons.get(i * (rows / OPERATIONS) + 1).getId_person(), controller);
+        }
+      });
+
+      report("%d persons: %d µs per update, %d µs per delete", rows, micros(updates / OPERATIONS), micros(deletes / OPERATIONS));
+      assertEquals(rows - OPERATIONS, model.findAllPerson(controller).size());
+    }
+  }
+}
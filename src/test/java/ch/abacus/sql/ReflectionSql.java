@@ -73,14 +73,6 @@ public class ReflectionSql {
     return (List<Address>) method.invoke(impl, controller);
   }
 
-  @SuppressWarnings("unchecked")
-  public static Optional<Long> getPersonIdUsingReflection(Person person, Controller controller) throws NoSuchMethodException, InvocationTargetException, IllegalAccessException {
-    SQLModelImpl impl = new SQLModelImpl(controller);
-    Method method = impl.getClass().getDeclaredMethod("getPersonId", Person.class, Consumer.class);
-    method.setAccessible(true);
-    return (Optional<Long>) method.invoke(impl, person, controller);
-  }
-
   @SuppressWarnings("unchecked")
   public static Optional<Long> getAddressIdUsingReflection(Address address, Controller controller) throws NoSuchMethodException, InvocationTargetException, IllegalAccessException {
     SQLModelImpl impl = new SQLModelImpl(controller);
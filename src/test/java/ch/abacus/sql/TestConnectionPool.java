@@ -0,0 +1,326 @@
+/*
+ * TestConnectionPool.java
+ *
+ * Creator:
+ * 18.10.2026 22:30 agent
+ *
+ * Maintainer:
+ * 18.10.2026 22:30 agent
+ *
+ * Last Modification:
+ * $Id:$
+ *
+ * Copyright (c) 2024 ABACUS Research AG, All Rights Reserved
+ */
+package ch.abacus.sql;
+
+import ch.abacus.common.DbConst;
+import ch.abacus.db.components.ConnectionPool;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+//the pool and its statement cache against a stub driver, no database is needed
+class TestConnectionPool {
+
+  private static final String URL = "jdbc:stub:pool";
+  private static final String FAILING = "SELECT fails";
+  private static final StubDriver DRIVER = new StubDriver();
+
+  private ConnectionPool pool;
+  private Connection connection;
+
+  @BeforeAll
+  static void registerDriver() throws SQLException {
+    DriverManager.registerDriver(DRIVER);
+  }
+
+  @AfterAll
+  static void deregisterDriver() throws SQLException {
+    DriverManager.deregisterDriver(DRIVER);
+  }
+
+  @BeforeEach
+  void before() throws SQLException {
+    DRIVER.connections.clear();
+    DRIVER.statements.clear();
+    pool = new ConnectionPool(URL, "", "", 0, 1);
+    connection = pool.borrow();
+  }
+
+  @AfterEach
+  void after() throws SQLException {
+    connection.close();
+    pool.shutdown();
+  }
+
+  @Test
+  void testMetricsFollowBorrowAndReturn() throws SQLException {
+    assertEquals(1, pool.getActiveCount());
+    assertEquals(1, pool.getBorrowCount());
+    connection.close();
+
+    assertEquals(0, pool.getActiveCount());
+    assertEquals(1, pool.getIdleCount());
+    assertEquals(1, pool.getTotalCount());
+    assertEquals(0, pool.getWaitCount());
+  }
+
+  @Test
+  void testBorrowTimesOutWhenExhausted() {
+    pool.setMaxWaitMillis(50);
+
+    assertThrows(SQLTransientConnectionException.class, pool::borrow);
+    assertEquals(1, pool.getTimeoutCount());
+  }
+
+  @Test
+  void testWaitingBorrowGetsReturnedConnection() throws Exception {
+    ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+    try {
+      executor.schedule(() -> {
+        connection.close();
+        return null;
+      }, 50, TimeUnit.MILLISECONDS);
+      pool.borrow().close();
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertEquals(1, DRIVER.connections.size()); //handed on, not a second physical connection
+    assertEquals(2, pool.getBorrowCount());
+    assertEquals(1, pool.getWaitCount());
+  }
+
+  @Test
+  void testBrokenIdleConnectionIsReplaced() throws SQLException {
+    connection.close();
+    DRIVER.connections.get(0).valid = false;
+    pool.setValidationWindowMillis(0); //always ping
+
+    pool.borrow().close();
+    assertEquals(2, DRIVER.connections.size());
+    assertTrue(DRIVER.connections.get(0).closed);
+    assertEquals(1, pool.getValidationFailureCount());
+    assertEquals(1, pool.getTotalCount());
+  }
+
+  @Test
+  void testIdleConnectionIsEvicted() throws SQLException {
+    connection.close();
+    pool.setIdleTimeoutMillis(-1); //every idle connection is overdue
+    pool.houseKeeping();
+
+    assertEquals(0, pool.getIdleCount());
+    assertEquals(0, pool.getTotalCount());
+    assertTrue(DRIVER.connections.get(0).closed);
+  }
+
+  @Test
+  void testLeakIsReportedOnce() {
+    pool.setLeakThresholdMillis(-1); //every leased connection is overdue
+    pool.houseKeeping();
+    pool.houseKeeping();
+
+    assertEquals(1, pool.getLeakCount());
+  }
+
+  @Test
+  void testCloseChecksInWithoutClosing() throws SQLException {
+    PreparedStatement statement = connection.prepareStatement("SELECT 1");
+    statement.setLong(1, 42);
+    statement.close();
+
+    StubStatement physical = DRIVER.statements.get(0);
+    assertFalse(physical.closed);
+    assertTrue(physical.parametersCleared);
+    assertTrue(statement.isClosed());
+    assertThrows(SQLException.class, () -> statement.setLong(1, 43));
+  }
+
+  @Test
+  void testClosedStatementIsReused() throws SQLException {
+    PreparedStatement first = connection.prepareStatement("SELECT 1");
+    first.close();
+    PreparedStatement second = connection.prepareStatement("SELECT 1");
+    second.close();
+
+    assertEquals(1, DRIVER.statements.size());
+    assertSame(first, second);
+    assertEquals(1, pool.getStatementCacheHits());
+    assertEquals(1, pool.getStatementCacheMisses());
+  }
+
+  @Test
+  void testOpenStatementIsNotSharedWithNestedCaller() throws SQLException {
+    PreparedStatement outer = connection.prepareStatement("SELECT 1");
+    PreparedStatement inner = connection.prepareStatement("SELECT 1");
+    assertNotSame(outer, inner);
+    inner.close();
+    outer.close();
+
+    assertEquals(2, DRIVER.statements.size());
+    assertTrue(DRIVER.statements.get(1).closed); //the nested one was never cached
+    assertFalse(DRIVER.statements.get(0).closed);
+  }
+
+  @Test
+  void testLeastRecentlyUsedStatementIsEvicted() throws SQLException {
+    for (int i = 0; i < DbConst.STATEMENTCACHESIZE; i++) {
+      connection.prepareStatement("SELECT " + i).close();
+    }
+    connection.prepareStatement("SELECT 0").close(); //SELECT 1 is now the least recently used one
+    connection.prepareStatement("SELECT new").close();
+
+    assertEquals(1, pool.getStatementCacheEvictions());
+    assertFalse(DRIVER.statements.get(0).closed);
+    assertTrue(DRIVER.statements.get(1).closed);
+
+    connection.prepareStatement("SELECT 1").close();
+    assertEquals(DbConst.STATEMENTCACHESIZE + 2, DRIVER.statements.size()); //prepared again after the eviction
+  }
+
+  @Test
+  void testFailedStatementIsEvicted() throws SQLException {
+    PreparedStatement statement = connection.prepareStatement(FAILING);
+    assertThrows(SQLException.class, statement::executeQuery);
+    statement.close();
+
+    assertTrue(DRIVER.statements.get(0).closed);
+    assertEquals(1, pool.getStatementCacheEvictions());
+
+    connection.prepareStatement(FAILING).close();
+    assertEquals(2, DRIVER.statements.size());
+  }
+
+  private static class StubDriver implements Driver {
+
+    private final List<StubConnection> connections = new ArrayList<>();
+    private final List<StubStatement> statements = new ArrayList<>();
+
+    @Override
+    public Connection connect(String url, Properties info) {
+      if (!acceptsURL(url)) {
+        return null;
+      }
+      StubConnection connection = new StubConnection(statements);
+      connections.add(connection);
+      return connection.proxy;
+    }
+
+    @Override
+    public boolean acceptsURL(String url) {
+      return url.startsWith(URL);
+    }
+
+    @Override
+    public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+      return new DriverPropertyInfo[0];
+    }
+
+    @Override
+    public int getMajorVersion() {
+      return 1;
+    }
+
+    @Override
+    public int getMinorVersion() {
+      return 0;
+    }
+
+    @Override
+    public boolean jdbcCompliant() {
+      return false;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+      throw new SQLFeatureNotSupportedException();
+    }
+  }
+
+  private static class StubConnection {
+
+    private final Connection proxy;
+    private boolean closed;
+    private boolean valid = true;
+
+    private StubConnection(List<StubStatement> statements) {
+      proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, (p, method, args) -> {
+        switch (method.getName()) {
+          case "prepareStatement":
+            StubStatement statement = new StubStatement((String) args[0]);
+            statements.add(statement);
+            return statement.proxy;
+          case "getAutoCommit":
+            return true;
+          case "isValid":
+            return valid;
+          case "isClosed":
+            return closed;
+          case "close":
+            closed = true;
+            return null;
+          default:
+            return null;
+        }
+      });
+    }
+  }
+
+  private static class StubStatement {
+
+    private final PreparedStatement proxy;
+    private boolean closed;
+    private boolean parametersCleared;
+
+    private StubStatement(String sql) {
+      proxy = (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, (p, method, args) -> {
+        switch (method.getName()) {
+          case "executeQuery":
+            if (sql.equals(FAILING)) {
+              throw new SQLException(sql);
+            }
+            return Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class}, (r, m, a) -> null);
+          case "clearParameters":
+            parametersCleared = true;
+            return null;
+          case "isClosed":
+            return closed;
+          case "close":
+            closed = true;
+            return null;
+          default:
+            return null;
+        }
+      });
+    }
+  }
+}
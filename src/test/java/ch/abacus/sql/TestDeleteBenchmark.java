@@ -0,0 +1,66 @@
+/*
+ * TestDeleteBenchmark.java
+ *
+ * Creator:
+ * 18.10.2026 10:41 agent
+ *
+ * Maintainer:
+ * 18.10.2026 10:41 agent
+ *
+ * Last Modification:
+ * $Id:$
+ *
+ * Copyright (c) 2024 ABACUS Research AG, All Rights Reserved
+ */
+package ch.abacus.sql;
+
+import ch.abacus.controller.Controller;
+import ch.abacus.controller.ControllerImpl;
+import ch.abacus.db.SQLModelImpl;
+import ch.abacus.db.entity.Person;
+import ch.abacus.fileio.Benchmark;
+import ch.abacus.fileio.BenchmarkPersons;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+//deleting by id should not get slower with the table size
+class TestDeleteBenchmark extends Benchmark {
+
+  private static final int ROWS = 100_000;
+  private static final int DELETES = 1_000;
+
+  private final Controller controller = new ControllerImpl();
+  private SQLModelImpl model;
+
+  @BeforeEach
+  public void before() throws NoSuchMethodException, InvocationTargetException, IllegalAccessException {
+    model = new SQLModelImpl(controller);
+    ReflectionSql.deleteAllUsingReflection(controller);
+    assertEquals(ROWS, model.saveAll(BenchmarkPersons.create(ROWS), controller));
+  }
+
+  @AfterEach
+  public void after() throws NoSuchMethodException, InvocationTargetException, IllegalAccessException {
+    ReflectionSql.deleteAllUsingReflection(controller);
+  }
+
+  @Test
+  void benchmarkDeleteById() throws Exception {
+    List<Person> persons = model.findAllPerson(controller);
+
+    long elapsed = time(() -> {
+      for (int i = 0; i < DELETES; i++) {
+        model.delete(persons.get(i * (ROWS / DELETES)).getId_person(), controller);
+      }
+    });
+
+    report("Deleted %d of %d persons in %d ms (%d µs per delete)", DELETES, ROWS, millis(elapsed), micros(elapsed / DELETES));
+    assertEquals(ROWS - DELETES, model.findAllPerson(controller).size());
+  }
+}
@@ -14,6 +14,7 @@
  */
 package ch.abacus.sql;
 
+import ch.abacus.common.SortKey;
 import ch.abacus.components.GetAddresses;
 import ch.abacus.components.GetPeople;
 import ch.abacus.controller.Controller;
@@ -36,10 +37,13 @@ import java.time.LocalDate;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class TestPerson {
@@ -114,17 +118,69 @@ class TestPerson {
     assertEquals(persons.get(0).getAddress().getCountry(), insertedPerson.getAddress().getCountry());
   }
 
+  @Test
+  void testSavePersonTwiceReturnsExistingRow() throws InvocationTargetException, NoSuchMethodException, IllegalAccessException {
+    Person insertedPerson = ReflectionSql.savePersonUsingReflection(getPeople.getPerson(getAddresses.getAddress()), controller);
+    Person savedAgain = ReflectionSql.savePersonUsingReflection(getPeople.getPerson(getAddresses.getAddress()), controller);
+
+    assertEquals(insertedPerson.getId_person(), savedAgain.getId_person());
+    assertEquals(insertedPerson.getAddress().getId_address(), savedAgain.getAddress().getId_address());
+    assertEquals(1, ReflectionSql.findAllPersonsUsingReflection(controller).size());
+    assertEquals(1, ReflectionSql.findAllAddressesUsingReflection(controller).size());
+  }
+
+  @Test
+  void testFindPersonsPage() throws InvocationTargetException, NoSuchMethodException, IllegalAccessException {
+    ReflectionSql.savePersonUsingReflection(getPeople.getPerson(getAddresses.getAddress()), controller);
+    ReflectionSql.savePersonUsingReflection(getPeople.getPerson2(getAddresses.getAddress2()), controller);
+    ReflectionSql.savePersonUsingReflection(getPeople.getPerson3(getAddresses.getAddress3()), controller);
+
+    List<Person> firstPage = model.findPersonsPage(null, 2, SortKey.LASTNAME, controller);
+    assertEquals(2, firstPage.size());
+    assertEquals("hundename", firstPage.get(0).getLastName());
+    assertEquals("katzename", firstPage.get(1).getLastName());
+
+    List<Person> secondPage = model.findPersonsPage(firstPage.get(1).getId_person(), 2, SortKey.LASTNAME, controller);
+    assertEquals(1, secondPage.size());
+    assertEquals("Schweizer", secondPage.get(0).getLastName());
+
+    assertTrue(model.findPersonsPage(secondPage.get(0).getId_person(), 2, SortKey.LASTNAME, controller).isEmpty());
+  }
+
+  @Test
+  void testStreamAll() throws InvocationTargetException, NoSuchMethodException, IllegalAccessException {
+    ReflectionSql.savePersonUsingReflection(getPeople.getPerson(getAddresses.getAddress()), controller);
+    ReflectionSql.savePersonUsingReflection(getPeople.getPerson2(getAddresses.getAddress2()), controller);
+
+    try (Stream<Person> persons = model.streamAll(controller)) {
+      List<String> lastNames = persons.map(Person::getLastName).collect(Collectors.toList());
+      assertEquals(List.of("Schweizer", "hundename"), lastNames);
+    }
+  }
+
+  @Test
+  void testFindAllPersonsSharesAddress() throws InvocationTargetException, NoSuchMethodException, IllegalAccessException {
+    Address address = new Address(null, "Schwarzenbach", "2178", 9200, "Gossau", "Schweiz");
+    ReflectionSql.savePersonUsingReflection(new Person(null, address, "Josia", "Schweizer", LocalDate.of(2007, 9, 18), Gender.MALE), controller);
+    ReflectionSql.savePersonUsingReflection(new Person(null, address, "Hans", "Müller", LocalDate.of(2007, 9, 18), Gender.MALE), controller);
+
+    List<Person> persons = ReflectionSql.findAllPersonsUsingReflection(controller);
+
+    assertEquals(2, persons.size());
+    assertSame(persons.get(0).getAddress(), persons.get(1).getAddress());
+    assertEquals(address.getStreet(), persons.get(0).getAddress().getStreet());
+  }
+
   @Test
   void testDeleteAddressById() throws InvocationTargetException, NoSuchMethodException, IllegalAccessException {
     Address address = new Address(null, "Schwarzenbach", "2178", 9200, "Gossau", "Schweiz");
     Person person = new Person(null, address, "Josia", "Schweizer", LocalDate.of(2007, 9, 18), Gender.MALE);
 
-    ReflectionSql.savePersonUsingReflection(person, controller);
-    Optional<Long> id = ReflectionSql.getPersonIdUsingReflection(person, controller);
+    Long id = model.savePerson(person, controller).getId_person();
 
-    ReflectionSql.deleteByIdUsingReflection(id.get(), true, controller);
+    ReflectionSql.deleteByIdUsingReflection(id, true, controller);
 
-    Optional<Person> foundPerson = ReflectionSql.getPersonByIdUsingReflection(id.get(), controller);
+    Optional<Person> foundPerson = model.getPersonById(id, controller);
     assertTrue(foundPerson.isEmpty());
   }
 